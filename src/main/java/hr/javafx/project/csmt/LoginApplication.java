@@ -1,6 +1,13 @@
 package hr.javafx.project.csmt;
 
+import hr.javafx.project.csmt.thread.ChangeLogWriter;
+import hr.javafx.project.csmt.thread.DatabaseExecutor;
+import hr.javafx.project.csmt.thread.FxStallWatchdog;
+import hr.javafx.project.csmt.utils.ChangeLog;
+import hr.javafx.project.csmt.utils.ChangeShipper;
+import hr.javafx.project.csmt.utils.Database;
 import hr.javafx.project.csmt.utils.LogUtils;
+import hr.javafx.project.csmt.utils.TaskArchiver;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -24,7 +31,8 @@ public class LoginApplication extends Application {
 
 
     /**
-     * JavaFX application entry point. Registers and launches the login screen.
+     * JavaFX application entry point. Registers and launches the login screen
+     * and starts shipping and compacting the change log in the background and watching the application thread for stalls.
      *
      * @param stage the primary stage provided by the JavaFX framework
      */
@@ -32,6 +40,25 @@ public class LoginApplication extends Application {
     public void start(Stage stage) {
         registerPrimaryStage(stage);
         showLoginScreen();
+        TaskArchiver.startScheduledArchival();
+        ChangeShipper.startScheduledShipping();
+        ChangeLog.startScheduledCompaction();
+        FxStallWatchdog.start();
+    }
+
+    /**
+     * JavaFX application exit point. Stops the background task archival, the change log compaction and shipping and the stall watchdog,
+     * waits for running database calls and pending changes and releases the pooled database connections.
+     */
+    @Override
+    public void stop() {
+        TaskArchiver.stopScheduledArchival();
+        ChangeLog.stopScheduledCompaction();
+        ChangeShipper.stopScheduledShipping();
+        FxStallWatchdog.stop();
+        DatabaseExecutor.shutdown();
+        ChangeLogWriter.shutdown();
+        Database.shutdown();
     }
 
     /**
@@ -1,6 +1,7 @@
 package hr.javafx.project.csmt.controller;
 
 import hr.javafx.project.csmt.model.Change;
+import hr.javafx.project.csmt.utils.ChangeQuery;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
@@ -13,15 +14,18 @@ import java.util.List;
  * such as adding a new message, task, etc.
  * Uses a ListView of VBox elements to show change details such as
  * name, original and new values, date of modification, and user information.
+ * Only the most recent changes are shown, newest first.
  *
  */
 public class ChangesController {
+    private static final int SHOWN_CHANGES = 200;
+
     @FXML
     ListView<VBox> changesListView;
 
 
     /**
-     * Loads change entities and fills the changesListView using the findAll() method
+     * Loads the latest change entities and fills the changesListView using the find() method
      * from the {@link Change} class
      * with information displayed in VBox containers.
      *
@@ -31,7 +35,7 @@ public class ChangesController {
         Change change = new Change();
         List<Change> changes;
         try {
-            changes = change.findAll();
+            changes = change.find(ChangeQuery.latest(SHOWN_CHANGES));
         } catch (InterruptedException e) {
             throw new InterruptedException("Thread interrupted");
         }
@@ -7,7 +7,11 @@ import hr.javafx.project.csmt.model.Employee;
 import hr.javafx.project.csmt.model.LoginUser;
 import hr.javafx.project.csmt.model.ProjectManager;
 import hr.javafx.project.csmt.model.TeamMember;
+import hr.javafx.project.csmt.repository.AsyncRepository;
 import hr.javafx.project.csmt.repository.EmployeeDatabaseRepository;
+import hr.javafx.project.csmt.thread.DatabaseExecutor;
+import hr.javafx.project.csmt.utils.ActionScope;
+import hr.javafx.project.csmt.utils.AlertUtils;
 import hr.javafx.project.csmt.utils.LogUtils;
 import hr.javafx.project.csmt.utils.PasswordUtils;
 import hr.javafx.project.csmt.utils.ShowScreenUtils;
@@ -35,9 +39,10 @@ public class LoginScreenController {
 
     /**
      * Handles user authentication by validating entered credentials.
-     * If the login is successful, the user is redirected to either the
-     * project manager or team member interface depending on their role.
-     * Displays an error alert if credentials are invalid.
+     * If the login is successful, the employee is loaded in the background through an {@link AsyncRepository}
+     * and the user is redirected to either the project manager or team member interface depending on their role.
+     * Displays an error alert if credentials are invalid or the employee cannot be loaded.
+     * Loading the employee and opening the main screen runs in an {@link ActionScope}.
      */
     public void login() {
         String username = usernameField.getText();
@@ -50,18 +55,20 @@ public class LoginScreenController {
                 Optional<LoginUser> loginUser = PasswordUtils.userPasswordValidator(username, password);
 
                 if (loginUser.isPresent()) {
-                    ShowScreenUtils showScreenUtils = new ShowScreenUtils();
-                    EmployeeDatabaseRepository employeeDatabaseRepository = new EmployeeDatabaseRepository();
+                    AsyncRepository<Employee> employeeRepository = new AsyncRepository<>(new EmployeeDatabaseRepository());
                     Long userId = loginUser.get().getId();
-                    Employee employee = employeeDatabaseRepository.findById(userId);
-                    if (employee != null) {
-                        if (employee.getRole().equals(Role.PROJECT_MANAGER)) {
-                            showScreenUtils.showProjectManagerScreen((ProjectManager) employee);
-                        } else {
-                            showScreenUtils.showTeamMemberScreen((TeamMember) employee);
-                        }
+                    ActionScope scope = ActionScope.open("login");
+                    try {
+                        employeeRepository.findById(userId)
+                                .thenAccept(employee -> showMainScreen(employee, username))
+                                .exceptionally(throwable -> {
+                                    LogUtils.error(DatabaseExecutor.unwrap(throwable).getMessage());
+                                    AlertUtils.showErrorAlert("Login failed", "Unable to load the user, please try again.");
+                                    return null;
+                                });
+                    } finally {
+                        scope.close();
                     }
-                    LogUtils.info("User logged in:" + username);
                 }
             }
             catch(PasswordsNotMatchingException e) {
@@ -73,6 +80,18 @@ public class LoginScreenController {
         }
     }
 
+    private void showMainScreen(Employee employee, String username) {
+        if (employee != null) {
+            ShowScreenUtils showScreenUtils = new ShowScreenUtils();
+            if (employee.getRole().equals(Role.PROJECT_MANAGER)) {
+                showScreenUtils.showProjectManagerScreen((ProjectManager) employee);
+            } else {
+                showScreenUtils.showTeamMemberScreen((TeamMember) employee);
+            }
+        }
+        LogUtils.info("User logged in:" + username);
+    }
+
     /**
      * Navigates to the screen showing the list of changes made.
      */
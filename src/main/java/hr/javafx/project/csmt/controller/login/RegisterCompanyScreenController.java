@@ -5,7 +5,6 @@ import hr.javafx.project.csmt.model.CompanyCredentials;
 import hr.javafx.project.csmt.repository.CompanyDatabaseRepository;
 import hr.javafx.project.csmt.repository.CompanyFileRepository;
 import hr.javafx.project.csmt.utils.AlertUtils;
-import hr.javafx.project.csmt.utils.Database;
 import hr.javafx.project.csmt.utils.LogUtils;
 import hr.javafx.project.csmt.utils.PasswordUtils;
 import javafx.fxml.FXML;
@@ -63,16 +62,13 @@ public class RegisterCompanyScreenController {
 
         if(errors.isEmpty()){
             identifier = PasswordUtils.hash(identifier);
-            Database database = new Database();
             CompanyDatabaseRepository companyDatabaseRepository = new CompanyDatabaseRepository();
             CompanyFileRepository companyFileRepository = new CompanyFileRepository();
 
-            Long id = database.getCompanyIdFromDatabase();
-
-            Company company = new Company(id, name);
+            Company company = new Company(null, name);
+            Long id = companyDatabaseRepository.save(company);
 
             CompanyCredentials companyCredentials = new CompanyCredentials(id, identifier);
-            companyDatabaseRepository.save(company);
             companyFileRepository.save(companyCredentials);
 
             AlertUtils.showSuccessAlert(company.getName());
@@ -5,7 +5,6 @@ import hr.javafx.project.csmt.model.*;
 import hr.javafx.project.csmt.repository.CompanyDatabaseRepository;
 import hr.javafx.project.csmt.repository.EmployeeDatabaseRepository;
 import hr.javafx.project.csmt.repository.LoginFileRepository;
-import hr.javafx.project.csmt.utils.Database;
 import hr.javafx.project.csmt.utils.LogUtils;
 import hr.javafx.project.csmt.utils.PasswordUtils;
 import javafx.fxml.FXML;
@@ -97,28 +96,25 @@ public class RegisterUserScreenController {
         if(errors.isEmpty() && role != null && company != null){
 
             EmployeeDatabaseRepository employeeDatabaseRepository = new EmployeeDatabaseRepository();
-            Database database = new Database();
-
-            Long id = database.getEmployeeIdFromDatabase();
 
+            Long id;
             if(role.equals(Role.PROJECT_MANAGER)){
                 ProjectManager.Builder projectManagerBuilder = new ProjectManager.Builder();
-                ProjectManager projectManager = (ProjectManager) projectManagerBuilder.withId(id)
+                ProjectManager projectManager = (ProjectManager) projectManagerBuilder
                         .withName(name)
                         .withRole(role)
                         .withEmployer(company)
                         .build();
-                employeeDatabaseRepository.save(projectManager);
+                id = employeeDatabaseRepository.save(projectManager);
             }
             else{
                 TeamMember.Builder teamMemberBuilder = new TeamMember.Builder();
-                TeamMember teamMember = teamMemberBuilder.withId(id)
+                TeamMember teamMember = teamMemberBuilder
                         .withName(name)
                         .withRole(role)
                         .withEmployer(company)
-                        .withTasks()
                         .build();
-                employeeDatabaseRepository.save(teamMember);
+                id = employeeDatabaseRepository.save(teamMember);
             }
 
             LoginUser loginUser = new LoginUser(id, username, password);
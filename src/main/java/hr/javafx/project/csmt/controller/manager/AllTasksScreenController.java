@@ -1,45 +1,48 @@
 package hr.javafx.project.csmt.controller.manager;
 
-import hr.javafx.project.csmt.enums.Role;
 import hr.javafx.project.csmt.model.ProjectManager;
-import hr.javafx.project.csmt.model.Task;
-import hr.javafx.project.csmt.model.TeamMember;
+import hr.javafx.project.csmt.repository.AssignedTask;
+import hr.javafx.project.csmt.repository.Page;
+import hr.javafx.project.csmt.repository.TaskDatabaseRepository;
 import hr.javafx.project.csmt.utils.ShowScreenUtils;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 
-import java.util.List;
-
 /**
  * Controller responsible for displaying all tasks related to the project manager's company.
  * Populates a TableView with task data including name, assigned team member,
- * due date, and completion status. Assignments are resolved by linking each task
- * to its corresponding {@link TeamMember} based on task ownership.
+ * due date, and completion status, one page at a time. The assignee of each task is read with the page,
+ * so showing a page does not load the employees of the company.
  * Connected to a JavaFX view and requires the {@link ProjectManager} to be registered
  * before initialization. Also supports returning to the main screen.
  *
  */
 public class AllTasksScreenController {
 
+    private static final int PAGE_SIZE = 50;
+
     ProjectManager projectManager;
+    String nextPage;
 
     @FXML
-    TableView<Task> allTasksTable;
+    TableView<AssignedTask> allTasksTable;
     @FXML
-    TableColumn<Task, String> taskNameColumn;
+    TableColumn<AssignedTask, String> taskNameColumn;
     @FXML
-    TableColumn<Task, String> assignedToColumn;
+    TableColumn<AssignedTask, String> assignedToColumn;
     @FXML
-    TableColumn<Task, String> dateDueColumn;
+    TableColumn<AssignedTask, String> dateDueColumn;
     @FXML
-    TableColumn<Task, String> taskCompletionColumn;
+    TableColumn<AssignedTask, String> taskCompletionColumn;
+    @FXML
+    Button loadMoreButton;
 
     /**
-     * Sets the currently logged-in {@link ProjectManager} and initializes the table with company tasks.
+     * Sets the currently logged-in {@link ProjectManager} and initializes the table with the first page of company tasks.
      *
      * @param projectManager the current project manager logged in
      */
@@ -50,37 +53,38 @@ public class AllTasksScreenController {
 
     /**
      * Initializes the table columns and defines how values are extracted and rendered.
-     * Resolves task assignments by checking which {@link TeamMember} owns each task.
+     * Shows the assignee read with the page, or nothing for an unassigned task.
      */
     public void initialize(){
-        taskNameColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getName()));
+        taskNameColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().task().getName()));
         assignedToColumn.setCellValueFactory(cellData -> {
-            Task task = cellData.getValue();
-            TeamMember assignedTo = projectManager.getEmployer().getEmployeesList().stream()
-                    .filter(e -> e.getRole().equals(Role.TEAM_MEMBER))
-                    .map(e-> (TeamMember)e)
-                    .filter(t -> t.getTasks().stream()
-                            .anyMatch(taskItem -> taskItem.getId().equals(task.getId())))
-                    .findFirst()
-                    .orElse(null);
-            String employeeName = "";
-            if(assignedTo != null){
-                employeeName = assignedTo.getName();
-            }
-            return new SimpleStringProperty(employeeName);
+            String employeeName = cellData.getValue().assignedTo();
+            return new SimpleStringProperty(employeeName == null ? "" : employeeName);
         });
-        dateDueColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getDue().toString()));
-        taskCompletionColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getCompletion().toString()));
+        dateDueColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().task().getDue().toString()));
+        taskCompletionColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().task().getCompletion().toString()));
         allTasksTable.getItems().addAll();
     }
 
     /**
-     * Loads the task data into the TableView for display.
+     * Loads the first page of task data into the TableView for display.
      */
     private void initializeTableView() {
-        List<Task> tasks = projectManager.getEmployer().getTasksList();
-        ObservableList<Task> observableList = FXCollections.observableList(tasks);
-        allTasksTable.setItems(observableList);
+        allTasksTable.setItems(FXCollections.observableArrayList());
+        nextPage = null;
+        loadMore();
+    }
+
+    /**
+     * Appends the next page of tasks to the TableView, reading it with {@link TaskDatabaseRepository#findPageByCompanyId}.
+     * Hides the load more button once the last page has been shown.
+     */
+    public void loadMore() {
+        TaskDatabaseRepository taskDatabaseRepository = new TaskDatabaseRepository();
+        Page<AssignedTask> page = taskDatabaseRepository.findPageByCompanyId(projectManager.getEmployer().getId(), nextPage, PAGE_SIZE);
+        allTasksTable.getItems().addAll(page.items());
+        nextPage = page.nextCursor();
+        loadMoreButton.setVisible(page.hasNext());
     }
 
 
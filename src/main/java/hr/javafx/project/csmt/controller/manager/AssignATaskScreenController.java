@@ -3,7 +3,9 @@ package hr.javafx.project.csmt.controller.manager;
 import hr.javafx.project.csmt.enums.Role;
 import hr.javafx.project.csmt.enums.TaskCompletion;
 import hr.javafx.project.csmt.model.*;
+import hr.javafx.project.csmt.thread.DatabaseExecutor;
 import hr.javafx.project.csmt.thread.UpdateEmployeeLabelThread;
+import hr.javafx.project.csmt.utils.ActionScope;
 import hr.javafx.project.csmt.utils.AlertUtils;
 import hr.javafx.project.csmt.utils.LogUtils;
 import hr.javafx.project.csmt.utils.ShowScreenUtils;
@@ -37,11 +39,39 @@ public class AssignATaskScreenController {
      * @param manager the current project manager logged in
      */
     public void setManager(ProjectManager manager) {
-        this.manager = manager;
-        initializeTaskList();
-        initializeEmployeeList();
+        ActionScope scope = ActionScope.open("open assign task screen");
+        try {
+            this.manager = manager;
+            applyCompany(loadCompany());
+            initializeTaskList();
+            initializeEmployeeList();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Loads the tasks and employees of the manager's company up front, since this screen displays them side by side.
+     * Only reads from the database, so it can run in the background while the screen still shows the old lists.
+     *
+     * @return the freshly loaded lists
+     */
+    private CompanyLists loadCompany(){
+        Company company = manager.getEmployer();
+        return new CompanyLists(company.getTasksListFromDatabase(), company.getEmployeesListFromDatabase(company.getId()));
+    }
+
+    /**
+     * Swaps the loaded lists into the manager's company. Must run on the JavaFX application thread.
+     *
+     * @param lists the lists returned by {@link #loadCompany()}
+     */
+    private void applyCompany(CompanyLists lists){
+        manager.getEmployer().replaceLists(lists.tasks(), lists.employees());
     }
 
+    private record CompanyLists(List<Task> tasks, List<Employee> employees) {}
+
     @FXML
     ListView<Task> taskListView;
 
@@ -65,7 +95,6 @@ public class AssignATaskScreenController {
      * Filters the list based on task status.
      */
     public void initializeTaskList(){
-        manager.getEmployer().refreshTasks();
         List<Task> tasks = manager.getEmployer().getTasksList();
         tasks = tasks.stream()
                 .filter(t->t.getCompletion().equals(TaskCompletion.WAITING_ASSIGNMENT))
@@ -82,7 +111,6 @@ public class AssignATaskScreenController {
      * and binds the data to the list.
      */
     public void initializeEmployeeList(){
-        manager.getEmployer().refreshEmployees();
         List<TeamMember> teamMembers = manager.getEmployer().getEmployeesList().stream()
                 .filter(e -> e.getRole().equals(Role.TEAM_MEMBER))
                 .map(e -> (TeamMember) e)
@@ -107,35 +135,51 @@ public class AssignATaskScreenController {
      * Handles assignment of the selected task to the selected employee,
      * triggers confirmation, logs the change, updates both lists,
      * and records it in the system change log.
-     *
-     * @throws InterruptedException if saving the change is interrupted
+     * The assignment and the reload of both lists run in the background through {@link DatabaseExecutor},
+     * the company and the lists are updated on the JavaFX application thread once the new data has arrived. The whole action runs in an {@link ActionScope}.
      */
-    public void assignATask() throws InterruptedException {
-        Task task = taskListView.getSelectionModel().getSelectedItem();
-        TeamMember teamMember = employeeListView.getSelectionModel().getSelectedItem();
+    public void assignATask() {
+        ActionScope scope = ActionScope.open("assign task");
+        try {
+            Task task = taskListView.getSelectionModel().getSelectedItem();
+            TeamMember teamMember = employeeListView.getSelectionModel().getSelectedItem();
 
-        StringBuilder errors = new StringBuilder();
+            StringBuilder errors = new StringBuilder();
 
-        if(task == null || teamMember == null){
-            errors.append("Please select one task and one employee\n");
-        }
-        if(errors.isEmpty() && teamMember != null && task != null) {
-            if(Boolean.TRUE.equals(AlertUtils.showConfirmationAlert("Are you sure you want to to assign task", task.getName(), "task assignment"))) {
-                teamMember.addTaskToTeamMember(task);
-                initializeTaskList();
-                initializeEmployeeList();
-                UpdateEmployeeLabelThread updateEmployeeLabelThread = new UpdateEmployeeLabelThread(filteredEmployees, warningLabel);
-                updateEmployeeLabelThread.run();
+            if(task == null || teamMember == null){
+                errors.append("Please select one task and one employee\n");
             }
-            String startingValue = "EMPLOYEE_ID = null " + "TaskCompletion = WAITING_ASSIGNMENT";
-            String endingValue ="EMPLOYEE_ID = " + teamMember.getId() + "TaskCompletion = IN_PROGRESS";
-
-            Change change = new Change("Task assigned", startingValue, endingValue, manager.getRole(), manager.getName());
-            change.save();
-            LogUtils.info(change.toString());
-        }
-        else{
-            AlertUtils.showErrorAlert("Error assigning a task" ,errors.toString());
+            if(errors.isEmpty() && teamMember != null && task != null) {
+                if(Boolean.TRUE.equals(AlertUtils.showConfirmationAlert("Are you sure you want to to assign task", task.getName(), "task assignment"))) {
+                    DatabaseExecutor.submit(() -> {
+                                teamMember.addTaskToTeamMember(task);
+                                return loadCompany();
+                            })
+                            .thenAccept(lists -> {
+                                applyCompany(lists);
+                                initializeTaskList();
+                                initializeEmployeeList();
+                                UpdateEmployeeLabelThread updateEmployeeLabelThread = new UpdateEmployeeLabelThread(filteredEmployees, warningLabel);
+                                updateEmployeeLabelThread.run();
+                            })
+                            .exceptionally(throwable -> {
+                                LogUtils.error(DatabaseExecutor.unwrap(throwable).getMessage());
+                                AlertUtils.showErrorAlert("Error assigning a task", "The task could not be assigned, please try again.");
+                                return null;
+                            });
+                }
+                String startingValue = "EMPLOYEE_ID = null " + "TaskCompletion = WAITING_ASSIGNMENT";
+                String endingValue ="EMPLOYEE_ID = " + teamMember.getId() + "TaskCompletion = IN_PROGRESS";
+
+                Change change = new Change("Task assigned", startingValue, endingValue, manager.getRole(), manager.getName(), manager.getEmployer().getId());
+                change.save();
+                LogUtils.info(change.toString());
+            }
+            else{
+                AlertUtils.showErrorAlert("Error assigning a task" ,errors.toString());
+            }
+        } finally {
+            scope.close();
         }
     }
 }
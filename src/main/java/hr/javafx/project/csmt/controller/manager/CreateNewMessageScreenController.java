@@ -1,6 +1,5 @@
 package hr.javafx.project.csmt.controller.manager;
 
-import hr.javafx.project.csmt.exception.DatabaseException;
 import hr.javafx.project.csmt.exception.TaskAndMessageCreationException;
 import hr.javafx.project.csmt.model.*;
 import hr.javafx.project.csmt.utils.AlertUtils;
@@ -11,10 +10,6 @@ import javafx.scene.control.ListView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-
 /**
  * Controller for creating and saving new messages to the database.
  * Handles the logic for generating a new
@@ -63,9 +58,8 @@ public class CreateNewMessageScreenController {
      * saves it to the database, and logs the change to the system.
      *
      * @throws TaskAndMessageCreationException if message creation is invalid
-     * @throws InterruptedException if change tracking is interrupted
      */
-    public void addMessage() throws TaskAndMessageCreationException, InterruptedException {
+    public void addMessage() throws TaskAndMessageCreationException {
         StringBuilder errors = new StringBuilder();
         if(messageNameTextField.getText().isEmpty() || messageDescriptionTextField.getText().isEmpty()){
             errors.append("Fill out name and description fields!\n");
@@ -77,10 +71,7 @@ public class CreateNewMessageScreenController {
             Task task = messageTaskListView.getSelectionModel().getSelectedItem();
             Pair<ProjectManager, Task> pair = new Pair<>(manager, task);
 
-            Database database = new Database();
-            Long id = database.getMessageIdFromDatabase();
-
-            Message message = new Message(id, name, description, pair);
+            Message message = new Message(null, name, description, pair);
 
             StringBuilder sb = new StringBuilder("Message:");
             sb.append(name);
@@ -92,10 +83,11 @@ public class CreateNewMessageScreenController {
             }
 
             if(Boolean.TRUE.equals(AlertUtils.showConfirmationAlert("Are you sure you want to add this message", sb.toString(), "adding the message"))){
-                uploadToDatabase(message);
+                Database database = new Database();
+                database.saveMessage(message);
                 String startingValue = "";
                 String endingValue = "Message:" + message.getId() + " " + message.getTitle() + " " + message.getContent();
-                Change change = new Change("Message created", startingValue, endingValue, manager.getRole(), manager.getName());
+                Change change = new Change("Message created", startingValue, endingValue, manager.getRole(), manager.getName(), manager.getEmployer().getId());
                 change.save();
             }
         }
@@ -104,30 +96,4 @@ public class CreateNewMessageScreenController {
         }
 
     }
-
-    /**
-     * Uploads the given message entity into the database using the SQL INSERT prepared statement.
-     * @param message the message to be persisted
-     */
-    public void uploadToDatabase(Message message){
-        Database database = new Database();
-        try(Connection connection = database.getConnection()) {
-            try(PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO MESSAGE(NAME, DESCRIPTION, TASK_ID, PROJECT_MANAGER_ID, COMPANY_ID) VALUES (?,?,?,?,?)")) {
-                preparedStatement.setString(1, message.getTitle());
-                preparedStatement.setString(2, message.getContent());
-                if(message.getPair().getSecond() != null){
-                    preparedStatement.setLong(3, message.getPair().getSecond().getId());
-                }
-                else{
-                    preparedStatement.setLong(3, -1);
-                }
-                preparedStatement.setLong(4, message.getPair().getFirst().getId());
-                preparedStatement.setLong(5, message.getPair().getFirst().getEmployer().getId());
-                preparedStatement.executeUpdate();
-            }
-
-        } catch (SQLException e) {
-            throw new DatabaseException(e);
-        }
-    }
 }
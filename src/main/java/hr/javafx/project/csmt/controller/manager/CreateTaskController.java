@@ -56,9 +56,8 @@ public class CreateTaskController {
      * If any fields are empty, shows an error alert to the user.
      *
      * @throws TaskAndMessageCreationException if task creation is invalid
-     * @throws InterruptedException if change logging is interrupted
      */
-    public void createTask() throws TaskAndMessageCreationException, InterruptedException {
+    public void createTask() throws TaskAndMessageCreationException {
         StringBuilder errors = new StringBuilder();
         String taskName = taskNameTextField.getText();
         String taskDescription = taskDescriptionTextArea.getText();
@@ -67,7 +66,7 @@ public class CreateTaskController {
             errors.append("Please fill out all fields\n");
         }
         if (errors.isEmpty() && taskDate != null) {
-            Task task = new Task(0L, taskName, taskDescription, taskDate, TaskCompletion.WAITING_ASSIGNMENT, manager.getName(), manager.getEmployer().getId());
+            Task task = new Task(null, taskName, taskDescription, taskDate, TaskCompletion.WAITING_ASSIGNMENT, manager.getName(), manager.getEmployer().getId());
             StringBuilder sb = new StringBuilder("Task:\n");
             sb.append(taskName)
                     .append("\nDescription:\n")
@@ -77,7 +76,7 @@ public class CreateTaskController {
                 taskDatabaseRepository.save(task);
                 String startingValue = "";
                 String endingValue = "Task:" + task.getId() + " " + task.getName() + " " + task.getDescription();
-                Change change = new Change("Task created", startingValue, endingValue, manager.getRole(), manager.getName());
+                Change change = new Change("Task created", startingValue, endingValue, manager.getRole(), manager.getName(), manager.getEmployer().getId());
                 change.save();
             }
             manager.getEmployer().refreshTasks();
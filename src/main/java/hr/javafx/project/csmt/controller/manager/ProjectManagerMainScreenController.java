@@ -1,15 +1,10 @@
 package hr.javafx.project.csmt.controller.manager;
 
-import hr.javafx.project.csmt.LoginApplication;
 import hr.javafx.project.csmt.model.ProjectManager;
-import hr.javafx.project.csmt.utils.LogUtils;
+import hr.javafx.project.csmt.utils.ShowScreenUtils;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
 
-import java.io.IOException;
-
 import static hr.javafx.project.csmt.LoginApplication.MAIN_SCREEN_HEIGHT;
 import static hr.javafx.project.csmt.LoginApplication.MAIN_SCREEN_WIDTH;
 
@@ -41,57 +36,24 @@ public class ProjectManagerMainScreenController {
      * Navigates to the task creation screen and passes the manager object to the new screen.
      */
     public void showCreateTaskScreen(){
-            FXMLLoader loader = new FXMLLoader(LoginApplication.class.getResource("createTask.fxml"));
-            Scene scene = null;
-            try {
-                scene = new Scene(loader.load(), MAIN_SCREEN_WIDTH, MAIN_SCREEN_HEIGHT);
-            } catch (IOException e) {
-                LogUtils.error(e.getMessage());
-            }
-
-            CreateTaskController createTaskController = loader.getController();
-            createTaskController.setManager(projectManager);
-
-            LoginApplication.getStage().setScene(scene);
-            LoginApplication.getStage().show();
+            new ShowScreenUtils().<CreateTaskController>showScreen("createTask.fxml", MAIN_SCREEN_HEIGHT, MAIN_SCREEN_WIDTH,
+                    controller -> controller.setManager(projectManager));
         }
 
     /**
      * Navigates to the message creation screen and passes the manager object to the new screen.
      */
     public void showCreateMessageScreen(){
-        FXMLLoader loader = new FXMLLoader(LoginApplication.class.getResource("createNewMessageScreen.fxml"));
-        Scene scene = null;
-        try {
-            scene = new Scene(loader.load(), MAIN_SCREEN_WIDTH, MAIN_SCREEN_HEIGHT);
-        } catch (IOException e) {
-            LogUtils.error(e.getMessage());
-        }
-
-        CreateNewMessageScreenController createMessageController = loader.getController();
-        createMessageController.setManager(projectManager);
-
-        LoginApplication.getStage().setScene(scene);
-        LoginApplication.getStage().show();
+        new ShowScreenUtils().<CreateNewMessageScreenController>showScreen("createNewMessageScreen.fxml", MAIN_SCREEN_HEIGHT, MAIN_SCREEN_WIDTH,
+                controller -> controller.setManager(projectManager));
     }
 
     /**
      * Navigates to the task assignment screen and passes the manager object to the new screen.
      */
         public void showAssignTaskScreen(){
-            FXMLLoader loader = new FXMLLoader(LoginApplication.class.getResource("assignATaskScreen.fxml"));
-            Scene scene = null;
-            try {
-                scene = new Scene(loader.load(), MAIN_SCREEN_WIDTH, MAIN_SCREEN_HEIGHT);
-            } catch (IOException e) {
-                LogUtils.error(e.getMessage());
-            }
-
-            AssignATaskScreenController assignATaskScreenController = loader.getController();
-            assignATaskScreenController.setManager(projectManager);
-
-            LoginApplication.getStage().setScene(scene);
-            LoginApplication.getStage().show();
+            new ShowScreenUtils().<AssignATaskScreenController>showScreen("assignATaskScreen.fxml", MAIN_SCREEN_HEIGHT, MAIN_SCREEN_WIDTH,
+                    controller -> controller.setManager(projectManager));
         }
 
     /**
@@ -99,19 +61,8 @@ public class ProjectManagerMainScreenController {
      */
 
     public void showAllTasksScreen(){
-        FXMLLoader loader = new FXMLLoader(LoginApplication.class.getResource("allTasksScreen.fxml"));
-        Scene scene = null;
-        try {
-            scene = new Scene(loader.load(), MAIN_SCREEN_WIDTH, MAIN_SCREEN_HEIGHT);
-        } catch (IOException e) {
-            LogUtils.error(e.getMessage());
-        }
-
-        AllTasksScreenController allTasksScreenController = loader.getController();
-        allTasksScreenController.setProjectManager(projectManager);
-
-        LoginApplication.getStage().setScene(scene);
-        LoginApplication.getStage().show();
+        new ShowScreenUtils().<AllTasksScreenController>showScreen("allTasksScreen.fxml", MAIN_SCREEN_HEIGHT, MAIN_SCREEN_WIDTH,
+                controller -> controller.setProjectManager(projectManager));
     }
 
 }
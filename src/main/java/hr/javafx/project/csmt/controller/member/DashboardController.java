@@ -3,26 +3,30 @@ package hr.javafx.project.csmt.controller.member;
 import hr.javafx.project.csmt.exception.MessageException;
 import hr.javafx.project.csmt.model.Message;
 import hr.javafx.project.csmt.model.TeamMember;
+import hr.javafx.project.csmt.repository.Page;
+import hr.javafx.project.csmt.utils.ActionScope;
 import hr.javafx.project.csmt.utils.Database;
 import hr.javafx.project.csmt.utils.LogUtils;
 import hr.javafx.project.csmt.utils.ShowScreenUtils;
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.layout.VBox;
 
-import java.util.Set;
-
 /**
  * Controller for displaying all messages relevant to a {@link TeamMember}.
- * Retrieves messages linked to the team member's company from the database
+ * Retrieves messages linked to the team member's company from the database, newest first and one page at a time,
  * and shows them in a ListView using VBox containers.
  * Each message entry includes title, content, date, optional task association,
  * and the project manager who posted it.
  *
  */
 public class DashboardController {
+    private static final int PAGE_SIZE = 20;
+
     TeamMember teamMember;
+    String nextPage;
 
     /**
      * Sets the currently logged-in {@link TeamMember}.
@@ -30,12 +34,19 @@ public class DashboardController {
      * @param teamMember the current project manager logged in
      */
     public void setTeamMember(TeamMember teamMember) {
-        this.teamMember = teamMember;
-        initializeMessagesListView();
+        ActionScope scope = ActionScope.open("open dashboard");
+        try {
+            this.teamMember = teamMember;
+            initializeMessagesListView();
+        } finally {
+            scope.close();
+        }
     }
 
     @FXML
     ListView<VBox> messagesListView;
+    @FXML
+    Button loadMoreButton;
 
     /**
      * Navigates back to the main screen for the current team member.
@@ -46,29 +57,16 @@ public class DashboardController {
     }
 
     /**
-     * Loads all messages from the database for a company
+     * Loads the newest messages from the database for a company
      * and shows them in a ListView.
      * Uses the {@link Database} to retrieve the messages from the database.
      */
 
     public void initializeMessagesListView(){
-        Database database = new Database();
+        messagesListView.getItems().clear();
+        nextPage = null;
         try {
-            Set<Message> messageSet = database.getMessagesFromDatabase(teamMember.getEmployer().getId());
-            for (Message message : messageSet) {
-                VBox vbox = new VBox();
-                Label messageName = new Label(message.getTitle());
-                Label messageContent = new Label(message.getContent());
-                Label messageDate = new Label(message.getDateCreated().toString());
-                vbox.getChildren().addAll(messageName, messageContent, messageDate);
-                if (message.getPair().getSecond() != null) {
-                    Label taskName = new Label(message.getPair().getSecond().getName());
-                    vbox.getChildren().add(taskName);
-                }
-                Label messageCreator = new Label("Posted by:" + message.getPair().getFirst().getName());
-                vbox.getChildren().add(messageCreator);
-                messagesListView.getItems().add(vbox);
-            }
+            loadMessages();
         }
         catch (MessageException e){
             LogUtils.error(e.getMessage());
@@ -78,4 +76,43 @@ public class DashboardController {
             messagesListView.getItems().add(vbox);
         }
     }
+
+    /**
+     * Appends the next page of older messages to the ListView.
+     */
+    public void loadMore(){
+        ActionScope scope = ActionScope.open("load more messages");
+        try {
+            loadMessages();
+        }
+        catch (MessageException e){
+            LogUtils.error(e.getMessage());
+        } finally {
+            scope.close();
+        }
+    }
+
+    private void loadMessages() throws MessageException {
+        Database database = new Database();
+        Page<Message> page = database.getMessagesPageFromDatabase(teamMember.getEmployer().getId(), nextPage, PAGE_SIZE);
+        nextPage = page.nextCursor();
+        loadMoreButton.setVisible(page.hasNext());
+        if (page.items().isEmpty()) {
+            throw new MessageException("No messages found");
+        }
+        for (Message message : page.items()) {
+            VBox vbox = new VBox();
+            Label messageName = new Label(message.getTitle());
+            Label messageContent = new Label(message.getContent());
+            Label messageDate = new Label(message.getDateCreated().toString());
+            vbox.getChildren().addAll(messageName, messageContent, messageDate);
+            if (message.getPair().getSecond() != null) {
+                Label taskName = new Label(message.getPair().getSecond().getName());
+                vbox.getChildren().add(taskName);
+            }
+            Label messageCreator = new Label("Posted by:" + message.getPair().getFirst().getName());
+            vbox.getChildren().add(messageCreator);
+            messagesListView.getItems().add(vbox);
+        }
+    }
 }
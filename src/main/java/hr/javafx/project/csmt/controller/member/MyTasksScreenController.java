@@ -5,9 +5,14 @@ import hr.javafx.project.csmt.enums.TaskPriority;
 import hr.javafx.project.csmt.exception.DatabaseEmptyException;
 import hr.javafx.project.csmt.exception.DatabaseException;
 import hr.javafx.project.csmt.model.Task;
+import hr.javafx.project.csmt.model.Company;
+import hr.javafx.project.csmt.model.Employee;
 import hr.javafx.project.csmt.model.TeamMember;
+import hr.javafx.project.csmt.repository.SecondLevelCache;
+import hr.javafx.project.csmt.thread.DatabaseExecutor;
 import hr.javafx.project.csmt.utils.AlertUtils;
 import hr.javafx.project.csmt.utils.Database;
+import hr.javafx.project.csmt.utils.LogUtils;
 import hr.javafx.project.csmt.utils.ShowScreenUtils;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -71,7 +76,8 @@ public class MyTasksScreenController {
 
     /**
      * Displays task details, including priority indication and a completion button.
-     * Reloads the task list after viewing or marking as complete.
+     * Reloads the task list in the background through {@link DatabaseExecutor} after viewing or marking as complete,
+     * the details are shown right away and the list is refreshed once the tasks have arrived.
      * Colors tasks based on its priority: green for low priority, yellow for medium
      * and red as a task with a high priority.
      */
@@ -101,24 +107,40 @@ public class MyTasksScreenController {
             tasksInformationVBox.getChildren().addAll(taskNameLabel, taskDescriptionLabel, taskDateDue, finishedButton);
             tasksInformationVBox.setSpacing(10);
 
-            Database db = new Database();
             finishedButton.setOnAction(event -> changeTaskCompletion(task));
-            try {
-                teamMember.setTasks(db.getTasksListFromDatabase("EMPLOYEE_ID", teamMember.getId()));
-            } catch (DatabaseEmptyException e) {
-                teamMember.setTasks(new ArrayList<>());
-            }
+            reloadTasks();
         }
+        else {
+            initializeMyTasks();
+        }
+    }
 
-
-        initializeMyTasks();
+    private void reloadTasks() {
+        Database db = new Database();
+        DatabaseExecutor.submit(() -> {
+                    try {
+                        return db.getTasksListFromDatabase("EMPLOYEE_ID", teamMember.getId());
+                    } catch (DatabaseEmptyException e) {
+                        return new ArrayList<Task>();
+                    }
+                })
+                .thenAccept(tasks -> {
+                    teamMember.setTasks(tasks);
+                    initializeMyTasks();
+                })
+                .exceptionally(throwable -> {
+                    LogUtils.error(DatabaseExecutor.unwrap(throwable).getMessage());
+                    initializeMyTasks();
+                    return null;
+                });
     }
 
 
     /**
      * Updates the completion status of the selected task in the database.
      * Prompts the user with a confirmation before applying changes.
-     * Uses SQL UPDATE statement for updating the task completion in the database.
+     * Uses SQL UPDATE statement for updating the task completion in the database
+     * and evicts the stale entities from the {@link SecondLevelCache}.
      *
      * @param task the task to mark as completed
      */
@@ -131,6 +153,9 @@ public class MyTasksScreenController {
                     preparedStatement.setString(1, TaskCompletion.COMPLETED.toString());
                     preparedStatement.setLong(2, task.getId());
                     preparedStatement.executeUpdate();
+                    SecondLevelCache.evict(Task.class, task.getId());
+                    SecondLevelCache.evict(Employee.class, teamMember.getId());
+                    SecondLevelCache.evict(Company.class, task.getCompanyId());
 
                 }
             } catch (SQLException e) {
@@ -1,12 +1,7 @@
 package hr.javafx.project.csmt.controller.member;
 
-import hr.javafx.project.csmt.LoginApplication;
 import hr.javafx.project.csmt.model.TeamMember;
-import hr.javafx.project.csmt.utils.LogUtils;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
-
-import java.io.IOException;
+import hr.javafx.project.csmt.utils.ShowScreenUtils;
 
 import static hr.javafx.project.csmt.LoginApplication.MAIN_SCREEN_HEIGHT;
 import static hr.javafx.project.csmt.LoginApplication.MAIN_SCREEN_WIDTH;
@@ -31,19 +26,8 @@ public class TeamMemberMainScreenController {
     }
 
     public void showMyTasksScreen(){
-        FXMLLoader loader = new FXMLLoader(LoginApplication.class.getResource("myTasksScreen.fxml"));
-        Scene scene = null;
-        try {
-            scene = new Scene(loader.load(), MAIN_SCREEN_WIDTH, MAIN_SCREEN_HEIGHT);
-        } catch (IOException e) {
-            LogUtils.error(e.getMessage());
-        }
-
-        MyTasksScreenController myTasksScreenController = loader.getController();
-        myTasksScreenController.setTeamMember(teamMember);
-
-        LoginApplication.getStage().setScene(scene);
-        LoginApplication.getStage().show();
+        new ShowScreenUtils().<MyTasksScreenController>showScreen("myTasksScreen.fxml", MAIN_SCREEN_HEIGHT, MAIN_SCREEN_WIDTH,
+                controller -> controller.setTeamMember(teamMember));
     }
 
 
@@ -51,18 +35,7 @@ public class TeamMemberMainScreenController {
      * Opens the dashboard screen showing messages posted by project managers.
      */
     public void showDashboardScreen(){
-        FXMLLoader loader = new FXMLLoader(LoginApplication.class.getResource("dashboard.fxml"));
-        Scene scene = null;
-        try {
-            scene = new Scene(loader.load(), MAIN_SCREEN_WIDTH, MAIN_SCREEN_HEIGHT);
-        } catch (IOException e) {
-            LogUtils.error(e.getMessage());
-        }
-
-        DashboardController dashboardController = loader.getController();
-        dashboardController.setTeamMember(teamMember);
-
-        LoginApplication.getStage().setScene(scene);
-        LoginApplication.getStage().show();
+        new ShowScreenUtils().<DashboardController>showScreen("dashboard.fxml", MAIN_SCREEN_HEIGHT, MAIN_SCREEN_WIDTH,
+                controller -> controller.setTeamMember(teamMember));
     }
 }
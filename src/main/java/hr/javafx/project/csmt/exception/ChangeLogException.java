@@ -0,0 +1,25 @@
+package hr.javafx.project.csmt.exception;
+
+/**
+ * An unchecked runtime exception indicating a failure to read or write the change log.
+ * Used for wrapping IOExceptions and signal corrupted change log records.
+ * Implements the main constructors from the {@link RuntimeException}
+ *
+ */
+public class ChangeLogException extends RuntimeException {
+    public ChangeLogException(String message) {
+        super(message);
+    }
+
+    public ChangeLogException() {
+        super();
+    }
+
+    public ChangeLogException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ChangeLogException(Throwable cause) {
+        super(cause);
+    }
+}
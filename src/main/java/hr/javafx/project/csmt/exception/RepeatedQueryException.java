@@ -0,0 +1,26 @@
+package hr.javafx.project.csmt.exception;
+
+/**
+ * An unchecked runtime exception thrown when a UI action runs the same SQL statement
+ * more often than the configured N+1 threshold allows while N+1 detection is set to fail.
+ * Extends {@link DatabaseException}, so callers handling database failures also handle it.
+ * Implements the main constructors from the {@link RuntimeException}
+ *
+ */
+public class RepeatedQueryException extends DatabaseException {
+    public RepeatedQueryException(String message) {
+        super(message);
+    }
+
+    public RepeatedQueryException() {
+        super();
+    }
+
+    public RepeatedQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RepeatedQueryException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,41 @@
+package hr.javafx.project.csmt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event emitted for every read of the change log by {@link hr.javafx.project.csmt.model.Change}
+ * and every batch of changes written by {@link hr.javafx.project.csmt.thread.ChangeLogWriter}.
+ * The wait time of a read is the time spent waiting for the pending changes to be written, the one of a write
+ * is the time the oldest change of the batch spent in the queue; it is included in the duration of a read only.
+ *
+ */
+
+@Name("hr.javafx.project.csmt.ChangeLog")
+@Label("Change Log Access")
+@Category({"CSMT", "Persistence"})
+@Description("Read or write of the change log file")
+@StackTrace(false)
+public class ChangeLogEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Changes")
+    @Description("Number of changes read or written")
+    public long changes;
+
+    @Label("File Size")
+    @DataAmount
+    public long fileSize;
+
+    @Label("Wait Time")
+    @Description("Time spent waiting for pending changes, or in the queue before being written")
+    @Timespan
+    public long waitTime;
+}
@@ -0,0 +1,35 @@
+package hr.javafx.project.csmt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for every call of a public
+ * {@link hr.javafx.project.csmt.repository.AbstractRepository} method.
+ * The duration of the event is the duration of the call; for streams it lasts until the stream is closed.
+ *
+ */
+
+@Name("hr.javafx.project.csmt.Repository")
+@Label("Repository Call")
+@Category({"CSMT", "Persistence"})
+@Description("Call of a repository method")
+@StackTrace(false)
+public class RepositoryEvent extends Event {
+    @Label("Repository")
+    public String repository;
+
+    @Label("Entity Type")
+    public String entityType;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Rows")
+    @Description("Number of entities read or written")
+    public long rows;
+}
@@ -0,0 +1,31 @@
+package hr.javafx.project.csmt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for every screen shown through {@link hr.javafx.project.csmt.utils.ShowScreenUtils}.
+ * The duration of the event covers loading the FXML file, initializing its controller with the
+ * data of the screen and showing the scene.
+ *
+ */
+
+@Name("hr.javafx.project.csmt.ScreenLoad")
+@Label("Screen Load")
+@Category({"CSMT", "JavaFX"})
+@Description("Loading and showing of an FXML screen")
+@StackTrace(false)
+public class ScreenLoadEvent extends Event {
+    @Label("FXML File")
+    public String fxmlFile;
+
+    @Label("Controller")
+    public String controller;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
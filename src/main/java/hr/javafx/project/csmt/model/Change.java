@@ -1,29 +1,42 @@
 package hr.javafx.project.csmt.model;
 
 import hr.javafx.project.csmt.enums.Role;
+import hr.javafx.project.csmt.exception.ChangeLogException;
+import hr.javafx.project.csmt.jfr.ChangeLogEvent;
+import hr.javafx.project.csmt.thread.ChangeLogWriter;
+import hr.javafx.project.csmt.utils.ChangeLog;
+import hr.javafx.project.csmt.utils.ChangeQuery;
 import hr.javafx.project.csmt.utils.LogUtils;
 
 import java.io.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 
 /**
  * Represents a single change entry that stores data including the name of the field changed, its initial and final values,
- * the role and name of the user who made the change, and the date it occurred.
- * This class supports concurrent access and management to a file where all changes are stored through synchronization.
+ * the role and name of the user who made the change, the company it was made in, and the date it occurred.
+ * Changes saved from any thread are written to the file where all changes are stored by a single {@link ChangeLogWriter}.
+ * Changes are stored in the append-only {@link ChangeLog}; {@link #CHANGES_FILE_NAME} is the Java-serialized file
+ * of earlier versions, which is migrated into it, so the serialized form of this class must stay compatible.
+ * Every read and write of the file is recorded as a {@link ChangeLogEvent} when Java Flight Recorder is running.
  *
  */
 
 public class Change implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 3353998716583746829L;
     public static final String CHANGES_FILE_NAME = "dat/changes.dat";
-    Boolean fileInUse = false;
     String name;
     String startingValue;
     String endingValue;
     Role changedByRole;
     String changedByName;
     LocalDateTime dateOfChange;
+    Long companyId;
 
     public Change() {}
 
@@ -36,6 +49,22 @@ public class Change implements Serializable {
         this.dateOfChange = LocalDateTime.now();
     }
 
+    public Change(String name, String startingValue, String endingValue, Role changedByRole, String changedByName, Long companyId) {
+        this(name, startingValue, endingValue, changedByRole, changedByName);
+        this.companyId = companyId;
+    }
+
+    public Change(String name, String startingValue, String endingValue, Role changedByRole, String changedByName,
+                  LocalDateTime dateOfChange, Long companyId) {
+        this.name = name;
+        this.startingValue = startingValue;
+        this.endingValue = endingValue;
+        this.changedByRole = changedByRole;
+        this.changedByName = changedByName;
+        this.dateOfChange = dateOfChange;
+        this.companyId = companyId;
+    }
+
 
     public String getName() {
         return name;
@@ -61,82 +90,97 @@ public class Change implements Serializable {
         return dateOfChange;
     }
 
-    public void setFileInUse(Boolean fileInUse) {
-        this.fileInUse = fileInUse;
+    public Long getCompanyId() {
+        return companyId;
     }
 
     /**
-     * Loads and returns all recorded changes from the serialized data file.
-     * Waits if the file is currently in use by another thread.
+     * Loads and returns all recorded changes from the {@link ChangeLog},
+     * including the changes saved before and still waiting to be written.
      *
      * @return a list of all {@code Change} instances from the file
-     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @throws InterruptedException if the current thread is interrupted while waiting for the pending changes
      */
 
-    public synchronized List<Change> findAll() throws InterruptedException {
-        List<Change> changes;
-        while(Boolean.TRUE.equals(fileInUse)) {
-            wait();
+    public List<Change> findAll() throws InterruptedException {
+        ChangeLogEvent event = new ChangeLogEvent();
+        event.begin();
+        long waitStart = System.nanoTime();
+        try {
+            ChangeLogWriter.flush().get();
+        } catch (ExecutionException e) {
+            LogUtils.error("Failed to write pending changes: " + e.getCause().getMessage());
         }
+        event.waitTime = System.nanoTime() - waitStart;
 
-        setFileInUse(true);
-
-        changes = new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(CHANGES_FILE_NAME))) {
-            Object obj;
-            while ((obj = ois.readObject()) != null) {
-                Change change = (Change) obj;
-                changes.add(change);
-            }
-        }catch (IOException | ClassNotFoundException e) {
+        List<Change> changes = new ArrayList<>();
+        try (Stream<Change> loggedChanges = ChangeLog.stream()) {
+            loggedChanges.forEach(changes::add);
+        } catch (ChangeLogException e) {
             LogUtils.error("Failed to load changes from file: " + e.getMessage());
         }
         finally {
-            setFileInUse(false);
-            notifyAll();
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "findAll";
+                event.changes = changes.size();
+                event.fileSize = ChangeLog.size();
+                event.commit();
+            }
         }
 
-
         return changes;
     }
 
     /**
-     * Saves the current {@code Change} instance to the file by appending
-     * it to the existing list of saved changes.
-     * Waits if the file is currently in use by another thread.
+     * Loads the changes matching a query from the {@link ChangeLog}, newest first,
+     * including the changes saved before and still waiting to be written.
+     * Only the parts of the log that can hold matching changes are read.
      *
-     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @param query the criteria the changes must match, e.g. {@code ChangeQuery.latest(200).forCompany(companyId)}
+     * @return at most {@code query.limit()} matching changes
+     * @throws InterruptedException if the current thread is interrupted while waiting for the pending changes
      */
 
-    public synchronized void save() throws InterruptedException {
-        while(Boolean.TRUE.equals(fileInUse)) {
-            wait();
+    public List<Change> find(ChangeQuery query) throws InterruptedException {
+        ChangeLogEvent event = new ChangeLogEvent();
+        event.begin();
+        long waitStart = System.nanoTime();
+        try {
+            ChangeLogWriter.flush().get();
+        } catch (ExecutionException e) {
+            LogUtils.error("Failed to write pending changes: " + e.getCause().getMessage());
         }
+        event.waitTime = System.nanoTime() - waitStart;
 
-        setFileInUse(true);
         List<Change> changes = new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(CHANGES_FILE_NAME))) {
-            Object obj;
-            while ((obj = ois.readObject()) != null) {
-                Change change = (Change) obj;
-                changes.add(change);
-            }
-        }catch (IOException | ClassNotFoundException e) {
+        try {
+            changes = ChangeLog.find(query);
+        } catch (ChangeLogException e) {
             LogUtils.error("Failed to load changes from file: " + e.getMessage());
         }
-        changes.add(this);
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(CHANGES_FILE_NAME))) {
-            for (Change change : changes) {
-                oos.writeObject(change);
+        finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "find";
+                event.changes = changes.size();
+                event.fileSize = ChangeLog.size();
+                event.commit();
             }
-        } catch (IOException ex) {
-            LogUtils.error(ex.getMessage());
-        }
-        finally{
-            setFileInUse(false);
-            notifyAll();
         }
 
+        return changes;
+    }
+
+    /**
+     * Saves the current {@code Change} instance by queueing it for the {@link ChangeLogWriter},
+     * which appends it to the end of the {@link ChangeLog}. Returns without waiting for the file.
+     *
+     * @return a future completed once the change is stored on the device, or failed if it could not be written
+     */
+
+    public CompletableFuture<Void> save() {
+        return ChangeLogWriter.submit(this);
     }
 
     @Override
@@ -148,6 +192,7 @@ public class Change implements Serializable {
                 ", changedByRole=" + changedByRole +
                 ", changedByName='" + changedByName + '\'' +
                 ", dateOfChange=" + dateOfChange +
+                ", companyId=" + companyId +
                 '}';
     }
 }
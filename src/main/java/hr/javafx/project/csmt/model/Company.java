@@ -3,17 +3,22 @@ package hr.javafx.project.csmt.model;
 import hr.javafx.project.csmt.enums.Role;
 import hr.javafx.project.csmt.exception.DatabaseEmptyException;
 import hr.javafx.project.csmt.exception.DatabaseException;
+import hr.javafx.project.csmt.repository.EntitySession;
 import hr.javafx.project.csmt.utils.Database;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a company entity which extends {@link Entity} and holds
  * information about its name, employees, and assigned tasks.
- * Upon instantiation, the list of employees is fetched from the database,
- * and the tasks are refreshed automatically.
+ * The lists of employees and tasks are {@link LazyList} proxies, fetched from the database
+ * on first access, so looking up a company stays cheap. Screens that know they need them
+ * can load them ahead of time with {@link #prefetch()}.
  * This class also provides functionality to refresh task and employee data
  * from the database manually.
  *
@@ -22,14 +27,14 @@ import java.util.List;
 
 public class Company extends Entity{
     private String name;
-    private List<Task> tasksList;
-    private List<Employee> employeesList;
+    private final LazyList<Task> tasksList;
+    private final LazyList<Employee> employeesList;
 
     public Company(Long id, String name) {
         super(id);
         this.name = name;
-        this.employeesList = getEmployeesListFromDatabase(id);
-        refreshTasks();
+        this.employeesList = new LazyList<>(() -> getId() == null ? new ArrayList<>() : getEmployeesListFromDatabase(getId()));
+        this.tasksList = new LazyList<>(this::getTasksListFromDatabase);
     }
 
     public String getName() {
@@ -51,54 +56,134 @@ public class Company extends Entity{
     }
 
 
+    /**
+     * Discards the loaded tasks, so they are fetched from the database again on the next access.
+     */
     public void refreshTasks(){
+        tasksList.invalidate();
+    }
+
+    /**
+     * Loads the employees and tasks of the company right away instead of on first access.
+     * Used by screens that display both lists, so the queries run before the screen is populated.
+     *
+     * @return this company
+     */
+    public Company prefetch(){
+        employeesList.load();
+        tasksList.load();
+        return this;
+    }
+
+    /**
+     * Replaces the loaded tasks and employees with the given ones.
+     * Lets a screen load both lists off the JavaFX application thread with {@link #getTasksListFromDatabase()}
+     * and {@link #getEmployeesListFromDatabase(Long)}, and swap them in on the JavaFX application thread.
+     *
+     * @param tasks the tasks of the company
+     * @param employees the employees of the company
+     */
+    public void replaceLists(List<Task> tasks, List<Employee> employees){
+        tasksList.replace(tasks);
+        employeesList.replace(employees);
+    }
+
+    public boolean isEmployeesListLoaded(){
+        return employeesList.isLoaded();
+    }
+
+    public boolean isTasksListLoaded(){
+        return tasksList.isLoaded();
+    }
+
+    /**
+     * Loads the tasks of the company from the database, without changing the loaded list.
+     *
+     * @return the tasks of the company
+     */
+    public List<Task> getTasksListFromDatabase(){
+        if (getId() == null) {
+            return new ArrayList<>();
+        }
         Database database = new Database();
         try {
-            this.tasksList = database.getTasksListFromDatabase("COMPANY_ID", getId());
+            return database.getTasksListFromDatabase("COMPANY_ID", getId());
         }catch (DatabaseEmptyException e){
-            this.tasksList = new ArrayList<>();
+            return new ArrayList<>();
         }
     }
 
+    /**
+     * Loads the employees of the company with the given ID.
+     * Employees already materialized in the current {@link EntitySession} are reused,
+     * newly built ones are registered in it. The tasks of all new team members are loaded
+     * together with {@link Database#getTasksByEmployeeFromDatabase(java.util.Collection)},
+     * so hydrating a company costs two queries regardless of its size.
+     *
+     * @param id the ID of the company
+     * @return the employees of the company
+     */
     public List<Employee> getEmployeesListFromDatabase(Long id) {
         Database database = new Database();
         List<Employee> employees = new ArrayList<>();
-        try(Connection connection = database.getConnection()) {
-            try(PreparedStatement preparedStatement = connection.prepareStatement("SELECT ID, NAME, ROLE FROM EMPLOYEE WHERE COMPANY_ID = ?")) {
+        try(EntitySession session = EntitySession.join()) {
+            Map<Long, String> names = new LinkedHashMap<>();
+            Map<Long, Role> roles = new HashMap<>();
+            try(Connection connection = database.getConnection();
+                PreparedStatement preparedStatement = connection.prepareStatement("SELECT ID, NAME, ROLE FROM EMPLOYEE WHERE COMPANY_ID = ?")) {
                 preparedStatement.setLong(1, id);
                 ResultSet resultSet = preparedStatement.executeQuery();
                 while(resultSet.next()){
                     Long employeeId = resultSet.getLong("ID");
-                    String employeeName = resultSet.getString("NAME");
-                    Role role = Role.valueOf(resultSet.getString("ROLE"));
-                    Company employeeCompany = this;
-                    if(role.equals(Role.TEAM_MEMBER)){
-                        TeamMember.Builder builder = new TeamMember.Builder();
-                        TeamMember teamMember = builder.withId(employeeId)
-                                .withName(employeeName)
-                                .withRole(role)
-                                .withEmployer(employeeCompany)
-                                .withTasks()
-                                .build();
-                        employees.add(teamMember);
-                    }
-                    else{
-                        ProjectManager.Builder builder = new ProjectManager.Builder();
-                        ProjectManager projectManager = (ProjectManager) builder.withId(employeeId)
-                                .withName(employeeName)
-                                .withRole(role)
-                                .withEmployer(employeeCompany)
-                                .build();
-                        employees.add(projectManager);
-                    }
+                    names.put(employeeId, resultSet.getString("NAME"));
+                    roles.put(employeeId, Role.valueOf(resultSet.getString("ROLE")));
+                }
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+
+            List<Long> newTeamMemberIds = names.keySet().stream()
+                    .filter(employeeId -> roles.get(employeeId).equals(Role.TEAM_MEMBER))
+                    .filter(employeeId -> session.get(Employee.class, employeeId) == null)
+                    .toList();
+            Map<Long, List<Task>> tasks = database.getTasksByEmployeeFromDatabase(newTeamMemberIds);
+
+            for (Map.Entry<Long, String> entry : names.entrySet()) {
+                Long employeeId = entry.getKey();
+                Employee registered = session.get(Employee.class, employeeId);
+                if(registered != null){
+                    employees.add(registered);
+                    continue;
+                }
+                Role role = roles.get(employeeId);
+                Company employeeCompany = this;
+                if(role.equals(Role.TEAM_MEMBER)){
+                    TeamMember.Builder builder = new TeamMember.Builder();
+                    TeamMember teamMember = builder.withId(employeeId)
+                            .withName(entry.getValue())
+                            .withRole(role)
+                            .withEmployer(employeeCompany)
+                            .withTasks(tasks.get(employeeId))
+                            .build();
+                    employees.add(session.register(Employee.class, teamMember));
+                }
+                else{
+                    ProjectManager.Builder builder = new ProjectManager.Builder();
+                    ProjectManager projectManager = (ProjectManager) builder.withId(employeeId)
+                            .withName(entry.getValue())
+                            .withRole(role)
+                            .withEmployer(employeeCompany)
+                            .build();
+                    employees.add(session.register(Employee.class, projectManager));
                 }
             }
-        } catch (SQLException e) {
-            throw new DatabaseException(e);
         }
         return employees;
     }
+    /**
+     * Discards the loaded employees, so they are fetched from the database again on the next access.
+     */
     public void refreshEmployees(){
-        this.employeesList = getEmployeesListFromDatabase(getId());
+        employeesList.invalidate();
     }
 }
@@ -0,0 +1,99 @@
+package hr.javafx.project.csmt.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * List proxy whose elements are fetched by a loader on first access.
+ * Used for the collections of {@link Company}, so that looking up a company does not
+ * pull its whole employee and task graph from the database.
+ * The loaded elements can be discarded with {@link #invalidate()}, in which case the next access loads them again,
+ * or loaded ahead of time with {@link #load()} by callers that know they are going to need them.
+ *
+ * @param <E> the type of the elements in the list
+ */
+
+public class LazyList<E> extends AbstractList<E> {
+    private final Supplier<List<E>> loader;
+    private volatile List<E> elements;
+
+    public LazyList(Supplier<List<E>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Loads the elements if they have not been loaded yet.
+     *
+     * @return this list
+     */
+    public LazyList<E> load() {
+        elements();
+        return this;
+    }
+
+    /**
+     * Discards the loaded elements, so the next access fetches them again.
+     */
+    public void invalidate() {
+        elements = null;
+    }
+
+    /**
+     * Replaces the elements with ones loaded elsewhere, for example on a background thread.
+     *
+     * @param loaded the new elements of the list
+     */
+    public void replace(List<E> loaded) {
+        elements = new ArrayList<>(loaded);
+    }
+
+    public boolean isLoaded() {
+        return elements != null;
+    }
+
+    private List<E> elements() {
+        List<E> loaded = elements;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = elements;
+                if (loaded == null) {
+                    loaded = new ArrayList<>(loader.get());
+                    elements = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public E get(int index) {
+        return elements().get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements().size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        return elements().set(index, element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        elements().add(index, element);
+    }
+
+    @Override
+    public E remove(int index) {
+        return elements().remove(index);
+    }
+
+    @Override
+    public String toString() {
+        return isLoaded() ? elements.toString() : "[not loaded]";
+    }
+}
@@ -3,6 +3,7 @@ package hr.javafx.project.csmt.model;
 import hr.javafx.project.csmt.enums.Role;
 import hr.javafx.project.csmt.exception.DatabaseEmptyException;
 import hr.javafx.project.csmt.exception.DatabaseException;
+import hr.javafx.project.csmt.repository.SecondLevelCache;
 import hr.javafx.project.csmt.utils.Database;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -50,6 +51,14 @@ public class TeamMember extends Employee{
             this.employer = employer;
             return this;
         }
+        /**
+         * Loads the uncompleted tasks of the team member with a query of its own.
+         * Must be called after {@link #withId(Long)}. When many team members are built at once,
+         * load their tasks with {@link Database#getTasksByEmployeeFromDatabase(java.util.Collection)}
+         * and pass them to {@link #withTasks(List)} instead.
+         *
+         * @return this builder
+         */
         public Builder withTasks(){
             Database database = new Database();
             try {
@@ -60,6 +69,17 @@ public class TeamMember extends Employee{
             return this;
         }
 
+        /**
+         * Uses tasks that have already been loaded for the team member.
+         *
+         * @param tasks the uncompleted tasks of the team member
+         * @return this builder
+         */
+        public Builder withTasks(List<Task> tasks){
+            this.tasks = tasks;
+            return this;
+        }
+
         /**
          * Builds and returns a new {@link TeamMember} instance using the provided data.
          *
@@ -81,7 +101,8 @@ public class TeamMember extends Employee{
     /**
      * Assigns a task to this team member by updating the task's status to "IN_PROGRESS".
      * This method executes an SQL update query on the TASK table,
-     * setting the EMPLOYEE_ID and COMPLETION fields.
+     * setting the EMPLOYEE_ID and COMPLETION fields, and evicts the task, this team member
+     * and the company from the {@link SecondLevelCache}.
      * @param task the task to be assigned to the team member
      * @throws DatabaseException if a SQL error occurs during the update
      */
@@ -95,6 +116,9 @@ public class TeamMember extends Employee{
                 preparedStatement.setLong(3, task.getId());
                 preparedStatement.executeUpdate();
             }
+            SecondLevelCache.evict(Task.class, task.getId());
+            SecondLevelCache.evict(Employee.class, getId());
+            SecondLevelCache.evict(Company.class, task.getCompanyId());
         }
         catch(SQLException e){
             throw new DatabaseException(e);
@@ -1,18 +1,144 @@
 package hr.javafx.project.csmt.repository;
 
+import hr.javafx.project.csmt.jfr.RepositoryEvent;
+import hr.javafx.project.csmt.model.Entity;
+import hr.javafx.project.csmt.utils.ResultSetStream;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 /**
  * Abstract base class representing a generic repository class for handling data.
- * Defines core methods for retrieving and saving entities of type T.
+ * Defines core methods for retrieving and saving entities of type T,
+ * where saving returns the identifier assigned to the stored entity.
+ * Database repositories save collections with JDBC batches through {@link #saveAll(Collection)}.
+ * Lookups by identifier are expected to read only the requested entities instead of
+ * loading every entity and filtering them in memory.
+ * Jobs walking a whole table should use {@link #streamAll()}, which database repositories
+ * back with a cursor instead of materializing every entity.
+ * Every public method emits a {@link RepositoryEvent} for Java Flight Recorder, with the entity type
+ * and the number of entities read or written, and delegates to the implementation of its repository.
  * This class is sealed and permits a defined set of repository implementations.
  *
  * @param <T> the type of object this repository manages
  *
  */
 
-public abstract sealed class AbstractRepository<T> permits CompanyDatabaseRepository, CompanyFileRepository, EmployeeDatabaseRepository, LoginFileRepository, TaskDatabaseRepository {
-    public abstract T findById(Long id);
-    public abstract List<T> findAll();
-    public abstract void save(T t);
+public abstract sealed class AbstractRepository<T extends Entity> permits CompanyDatabaseRepository, CompanyFileRepository, EmployeeDatabaseRepository, LoginFileRepository, TaskDatabaseRepository {
+    private final String entityType = resolveEntityType();
+
+    protected abstract T doFindById(Long id);
+    protected abstract List<T> doFindAllById(Collection<Long> ids);
+    protected abstract List<T> doFindAll();
+    protected abstract Long doSave(T t);
+
+    public final T findById(Long id) {
+        return record("findById", () -> doFindById(id), entity -> entity == null ? 0 : 1);
+    }
+
+    public final List<T> findAllById(Collection<Long> ids) {
+        return record("findAllById", () -> doFindAllById(ids), List::size);
+    }
+
+    public final List<T> findAll() {
+        return record("findAll", this::doFindAll, List::size);
+    }
+
+    public final Long save(T t) {
+        return record("save", () -> doSave(t), id -> 1);
+    }
+
+    public final List<Long> saveAll(Collection<T> entities) {
+        return record("saveAll", () -> doSaveAll(entities), List::size);
+    }
+
+    /**
+     * Saves all given entities and sets their assigned identifiers.
+     * Repositories without a batch-capable backend save the entities one by one.
+     *
+     * @param entities the entities to save
+     * @return the identifiers assigned to the entities, in iteration order
+     */
+    protected List<Long> doSaveAll(Collection<T> entities) {
+        List<Long> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            ids.add(doSave(entity));
+        }
+        return ids;
+    }
+
+    /**
+     * Returns every entity as a stream fetched with the default fetch size.
+     *
+     * @return a stream of all entities, which must be closed after use
+     */
+    public Stream<T> streamAll() {
+        return streamAll(ResultSetStream.getDefaultFetchSize());
+    }
+
+    /**
+     * Returns every entity as a stream. The {@link RepositoryEvent} of the call lasts until the stream is closed
+     * and counts the entities that were consumed.
+     *
+     * @param fetchSize the number of rows fetched from the database per round trip
+     * @return a stream of all entities, which must be closed after use
+     */
+    public final Stream<T> streamAll(int fetchSize) {
+        RepositoryEvent event = new RepositoryEvent();
+        event.begin();
+        AtomicLong rows = new AtomicLong();
+        return doStreamAll(fetchSize)
+                .peek(entity -> rows.incrementAndGet())
+                .onClose(() -> commit(event, "streamAll", rows.get()));
+    }
+
+    /**
+     * Returns every entity as a stream. Repositories without a cursor-capable backend
+     * stream the result of {@link #doFindAll()}.
+     *
+     * @param fetchSize the number of rows fetched from the database per round trip
+     * @return a stream of all entities, which must be closed after use
+     */
+    protected Stream<T> doStreamAll(int fetchSize) {
+        return doFindAll().stream();
+    }
+
+    private <R> R record(String operation, Supplier<R> call, ToLongFunction<R> rows) {
+        RepositoryEvent event = new RepositoryEvent();
+        event.begin();
+        R result = null;
+        try {
+            result = call.get();
+            return result;
+        } finally {
+            commit(event, operation, result == null ? 0 : rows.applyAsLong(result));
+        }
+    }
+
+    private void commit(RepositoryEvent event, String operation, long rows) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.repository = getClass().getSimpleName();
+            event.entityType = entityType;
+            event.operation = operation;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    private String resolveEntityType() {
+        Type type = getClass().getGenericSuperclass();
+        if (type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> entityClass) {
+            return entityClass.getSimpleName();
+        }
+        return "Entity";
+    }
 }
@@ -0,0 +1,13 @@
+package hr.javafx.project.csmt.repository;
+
+import hr.javafx.project.csmt.model.Task;
+
+/**
+ * A task listed together with the name of the employee it is assigned to,
+ * read in the same query as the task so that listings need not load the employees of the company.
+ *
+ * @param task the task
+ * @param assignedTo the name of the assigned employee, or {@code null} if the task is not assigned
+ */
+public record AssignedTask(Task task, String assignedTo) {
+}
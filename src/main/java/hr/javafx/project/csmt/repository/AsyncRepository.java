@@ -0,0 +1,41 @@
+package hr.javafx.project.csmt.repository;
+
+import hr.javafx.project.csmt.model.Entity;
+import hr.javafx.project.csmt.thread.DatabaseExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous view of a repository, used by the controllers to keep database round trips
+ * off the JavaFX application thread. Every call runs on a virtual thread through {@link DatabaseExecutor}
+ * and returns a future completed on the JavaFX application thread.
+ *
+ * @param <T> the type of object the underlying repository manages
+ *
+ */
+
+public class AsyncRepository<T extends Entity> {
+    private final AbstractRepository<T> repository;
+
+    public AsyncRepository(AbstractRepository<T> repository) {
+        this.repository = repository;
+    }
+
+    public CompletableFuture<T> findById(Long id) {
+        return DatabaseExecutor.submit(() -> repository.findById(id));
+    }
+
+    public CompletableFuture<List<T>> findAllById(Collection<Long> ids) {
+        return DatabaseExecutor.submit(() -> repository.findAllById(ids));
+    }
+
+    public CompletableFuture<List<T>> findAll() {
+        return DatabaseExecutor.submit(repository::findAll);
+    }
+
+    public CompletableFuture<Long> save(T t) {
+        return DatabaseExecutor.submit(() -> repository.save(t));
+    }
+}
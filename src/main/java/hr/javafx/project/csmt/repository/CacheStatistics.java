@@ -0,0 +1,34 @@
+package hr.javafx.project.csmt.repository;
+
+/**
+ * Immutable snapshot of the usage of one {@link SecondLevelCache} region.
+ * A low hit ratio with many evictions means the region is too small for the working set,
+ * while many expirations mean its time to live is shorter than the time entries stay in use.
+ *
+ * @param region the name of the region
+ * @param size the number of entities currently cached
+ * @param maxSize the configured maximum number of cached entities
+ * @param hits the number of lookups served from the cache
+ * @param misses the number of lookups that had to go to the database
+ * @param evictions the number of entities removed to make room for new ones
+ * @param expirations the number of entities removed because their time to live had passed
+ */
+
+public record CacheStatistics(String region, int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+
+    /**
+     * Returns the share of lookups served from the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if there have been no lookups yet
+     */
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStatistics{region=%s, size=%d, max=%d, hits=%d, misses=%d, evictions=%d, expirations=%d, hitRatio=%.3f}",
+                region, size, maxSize, hits, misses, evictions, expirations, hitRatio());
+    }
+}
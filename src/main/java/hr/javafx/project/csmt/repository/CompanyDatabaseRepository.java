@@ -3,10 +3,14 @@ package hr.javafx.project.csmt.repository;
 import hr.javafx.project.csmt.exception.DatabaseException;
 import hr.javafx.project.csmt.model.Company;
 import hr.javafx.project.csmt.utils.Database;
+import hr.javafx.project.csmt.utils.IdAllocator;
+import hr.javafx.project.csmt.utils.ResultSetStream;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository implementation for accessing {@link Company} entities from a database.
@@ -17,17 +21,74 @@ import java.util.List;
  */
 public non-sealed class CompanyDatabaseRepository extends AbstractRepository<Company> {
 
+    private static final String SELECT_COMPANY = "SELECT ID, NAME FROM COMPANY";
+
     /**
-     * Retrieves a company by its unique ID using {@code findAll()} and stream filtering
-     * over all loaded companies.
+     * Retrieves a company by its unique ID using a primary key lookup,
+     * unless the company has already been loaded in the current {@link EntitySession}.
      *
      * @param id the unique identifier of the company to retrieve
      * @return the {@code Company} with the matching ID, or {@code null} if not found
      */
 
     @Override
-    public Company findById(Long id) {
-        return findAll().stream().filter(x -> x.getId().equals(id)).findFirst().orElse(null);
+    protected Company doFindById(Long id) {
+        try(EntitySession session = EntitySession.join()) {
+            Company company = session.get(Company.class, id);
+            if (company != null) {
+                return company;
+            }
+            Database database = new Database();
+            try(Connection connection = database.getConnection()) {
+                try(PreparedStatement preparedStatement = connection.prepareStatement(SELECT_COMPANY + " WHERE ID = ?")) {
+                    preparedStatement.setLong(1, id);
+                    ResultSet resultSet = preparedStatement.executeQuery();
+                    return resultSet.next() ? mapCompany(resultSet, session) : null;
+                }
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the companies with the given IDs using a single {@code IN (...)} query
+     * per {@link Database#IN_CLAUSE_CHUNK_SIZE} identifiers.
+     * Companies already loaded in the current {@link EntitySession} are not read again.
+     *
+     * @param ids the identifiers of the companies to retrieve
+     * @return the companies found, in no particular order
+     */
+    @Override
+    protected List<Company> doFindAllById(Collection<Long> ids) {
+        try(EntitySession session = EntitySession.join()) {
+            return new ArrayList<>(session.resolveAll(Company.class, ids, missing -> loadAllById(missing, session)).values());
+        }
+    }
+
+    private List<Company> loadAllById(Collection<Long> ids, EntitySession session) {
+        List<Company> companies = new ArrayList<>();
+        Database database = new Database();
+        List<List<Long>> chunks = Database.inClauseChunks(ids);
+        if (chunks.isEmpty()) {
+            return companies;
+        }
+        try(Connection connection = database.getConnection()) {
+            for (List<Long> chunk : chunks) {
+                try(PreparedStatement preparedStatement = connection.prepareStatement(SELECT_COMPANY + " WHERE ID IN (" + Database.placeholders(chunk.size()) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        preparedStatement.setLong(i + 1, chunk.get(i));
+                    }
+                    ResultSet resultSet = preparedStatement.executeQuery();
+                    while (resultSet.next()) {
+                        companies.add(mapCompany(resultSet, session));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        return companies;
     }
 
     /**
@@ -37,14 +98,14 @@ public non-sealed class CompanyDatabaseRepository extends AbstractRepository<Com
      */
 
     @Override
-    public List<Company> findAll() {
+    protected List<Company> doFindAll() {
         List<Company> companies = new ArrayList<>();
         Database database = new Database();
-        try(Connection con = database.getConnection()) {
+        try(EntitySession session = EntitySession.join(); Connection con = database.getConnection()) {
             try (Statement stmt = con.createStatement()) {
-                ResultSet rs = stmt.executeQuery("SELECT ID, NAME FROM COMPANY");
+                ResultSet rs = stmt.executeQuery(SELECT_COMPANY);
                 while (rs.next()) {
-                    companies.add(new Company(rs.getLong("ID"), rs.getString("NAME")));
+                    companies.add(mapCompany(rs, session));
                 }
             }
         } catch (SQLException e) {
@@ -55,20 +116,50 @@ public non-sealed class CompanyDatabaseRepository extends AbstractRepository<Com
 
 
     /**
-     * Saves a new company to the database using an INSERT query.
+     * Saves a new company to the database using an INSERT query
+     * and sets the ID assigned by the {@link IdAllocator} on the company.
+     * Any stale {@link SecondLevelCache} entry for the ID is evicted.
      *
      * @param company the company entity to save
+     * @return the ID of the saved company
      */
     @Override
-    public void save(Company company) {
+    protected Long doSave(Company company) {
         Database database = new Database();
+        IdAllocator idAllocator = IdAllocator.getInstance();
         try(Connection connection = database.getConnection()) {
-            try(PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO COMPANY(NAME) VALUES (?)")){
+            Long id = idAllocator.nextId(connection, "COMPANY");
+            try(PreparedStatement preparedStatement = idAllocator.prepareInsert(connection, "COMPANY", "NAME", id)){
                 preparedStatement.setString(1, company.getName());
                 preparedStatement.executeUpdate();
+                company.setId(idAllocator.getAssignedId(preparedStatement, id));
             }
+            SecondLevelCache.evict(Company.class, company.getId());
         } catch (SQLException e) {
             throw new DatabaseException(e);
         }
+        return company.getId();
+    }
+
+    /**
+     * Streams all companies through a forward-only cursor, fetching {@code fetchSize} rows per round trip.
+     * Streamed companies are not registered in the {@link EntitySession}.
+     *
+     * @param fetchSize the number of rows fetched from the database per round trip
+     * @return a stream of all companies, which must be closed after use
+     */
+    @Override
+    protected Stream<Company> doStreamAll(int fetchSize) {
+        return ResultSetStream.of(SELECT_COMPANY, preparedStatement -> {}, fetchSize,
+                resultSet -> new Company(resultSet.getLong("ID"), resultSet.getString("NAME")));
+    }
+
+    private Company mapCompany(ResultSet resultSet, EntitySession session) throws SQLException {
+        Long id = resultSet.getLong("ID");
+        Company company = session.get(Company.class, id);
+        if (company == null) {
+            company = session.register(Company.class, new Company(id, resultSet.getString("NAME")));
+        }
+        return company;
     }
 }
@@ -9,7 +9,10 @@ import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -38,20 +41,35 @@ public non-sealed class CompanyFileRepository extends AbstractRepository<Company
      */
 
     @Override
-    public CompanyCredentials findById(Long id) {
+    protected CompanyCredentials doFindById(Long id) {
         return  findAll().stream()
                 .filter(b -> b.getId().equals(id))
                 .toList()
                 .getFirst();
     }
 
+    /**
+     * Searches for the company credential entries with the given IDs from the file-based storage.
+     * The file is read once regardless of the number of requested IDs.
+     *
+     * @param ids the unique identifiers of the companies
+     * @return the matching {@link CompanyCredentials} objects
+     */
+    @Override
+    protected List<CompanyCredentials> doFindAllById(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        return findAll().stream()
+                .filter(b -> wanted.contains(b.getId()))
+                .toList();
+    }
+
     /**
      * Loads and returns all company credential objects stored in the text file.
      *
      * @return a list of {@link CompanyCredentials} parsed from file
      */
     @Override
-    public List<CompanyCredentials> findAll() {
+    protected List<CompanyCredentials> doFindAll() {
         List<CompanyCredentials> companies = new ArrayList<>();
         try (Stream<String> stream = Files.lines(Path.of(BUSINESSES_FILENAME))) {
             List<String> rows = stream.toList();
@@ -73,9 +91,10 @@ public non-sealed class CompanyFileRepository extends AbstractRepository<Company
      * Reads all existing company credentials, appends the new one, and rewrites the file.
      *
      * @param companyCredentials the credentials to add to the file
+     * @return the ID of the company the credentials belong to
      */
     @Override
-    public void save(CompanyCredentials companyCredentials) {
+    protected Long doSave(CompanyCredentials companyCredentials) {
         List<CompanyCredentials> companies = findAll();
         companies.add(companyCredentials);
         try(PrintWriter writer = new PrintWriter(BUSINESSES_FILENAME)){
@@ -87,6 +106,6 @@ public non-sealed class CompanyFileRepository extends AbstractRepository<Company
         catch (FileNotFoundException e) {
             LogUtils.error(e.getMessage());
         }
-
+        return companyCredentials.getId();
     }
 }
@@ -5,12 +5,23 @@ import hr.javafx.project.csmt.exception.DatabaseException;
 import hr.javafx.project.csmt.model.Company;
 import hr.javafx.project.csmt.model.Employee;
 import hr.javafx.project.csmt.model.ProjectManager;
+import hr.javafx.project.csmt.model.Task;
 import hr.javafx.project.csmt.model.TeamMember;
 import hr.javafx.project.csmt.utils.Database;
+import hr.javafx.project.csmt.utils.IdAllocator;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Repository implementation for managing {@link Employee} entities through database access.
@@ -22,83 +33,309 @@ import java.util.List;
 
 public non-sealed class EmployeeDatabaseRepository extends AbstractRepository<Employee> {
 
+    private static final String SELECT_EMPLOYEE = "SELECT ID, NAME, ROLE, COMPANY_ID FROM EMPLOYEE";
+    private static final String INSERT_COLUMNS = "NAME, ROLE, COMPANY_ID";
+
     /**
-     * Retrieves an employee by ID using in-memory filtering after loading all employees.
+     * Retrieves an employee by ID using a primary key lookup,
+     * unless the employee has already been loaded in the current {@link EntitySession}.
      *
      * @param id the ID of the employee to retrieve
      * @return the matching {@link Employee} instance, or {@code null} if not found
      */
     @Override
-    public Employee findById(Long id) {
-        return findAll().stream().filter(employee -> employee.getId().equals(id)).findAny().orElse(null);
+    protected Employee doFindById(Long id) {
+        try(EntitySession session = EntitySession.join()) {
+            Employee employee = session.get(Employee.class, id);
+            if (employee != null) {
+                return employee;
+            }
+            List<Employee> employees = findAllById(List.of(id));
+            return employees.isEmpty() ? null : employees.getFirst();
+        }
+    }
+
+    /**
+     * Retrieves the employees with the given IDs using a single {@code IN (...)} query
+     * per {@link Database#IN_CLAUSE_CHUNK_SIZE} identifiers.
+     * The employers of all found employees are resolved together through the current {@link EntitySession},
+     * and the tasks of all team members are loaded with a single batched query.
+     *
+     * @param ids the identifiers of the employees to retrieve
+     * @return the employees found, in no particular order
+     */
+    @Override
+    protected List<Employee> doFindAllById(Collection<Long> ids) {
+        List<EmployeeRow> rows = new ArrayList<>();
+        Database database = new Database();
+        List<List<Long>> chunks = Database.inClauseChunks(ids);
+        if (chunks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try(EntitySession session = EntitySession.join()) {
+            try(Connection connection = database.getConnection()) {
+                for (List<Long> chunk : chunks) {
+                    try(PreparedStatement preparedStatement = connection.prepareStatement(SELECT_EMPLOYEE + " WHERE ID IN (" + Database.placeholders(chunk.size()) + ")")) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            preparedStatement.setLong(i + 1, chunk.get(i));
+                        }
+                        ResultSet resultSet = preparedStatement.executeQuery();
+                        while (resultSet.next()) {
+                            rows.add(readRow(resultSet));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+            return mapEmployees(rows, session);
+        }
     }
 
     /**
      * Loads all employee records from the database using the SQL SELECT and maps them to either
      * {@link TeamMember} or {@link ProjectManager} objects based on the role of the employee written in the database.
+     * Every company is loaded once through the current {@link EntitySession}, no matter how many employees it has.
      *
      * @return a list of all employees retrieved from the database
      */
     @Override
-    public List<Employee> findAll() {
-        List<Employee> employees = new ArrayList<>();
+    protected List<Employee> doFindAll() {
+        List<EmployeeRow> rows = new ArrayList<>();
         Database database = new Database();
-        try(Connection connection = database.getConnection()) {
-            ResultSet resultSet;
-            try (Statement statement = connection.createStatement()) {
-                resultSet = statement.executeQuery("SELECT ID, NAME, ROLE, COMPANY_ID FROM employee");
-                while (resultSet.next()) {
-                    Long id = resultSet.getLong("ID");
-                    String name = resultSet.getString("NAME");
-                    Role role = Role.valueOf(resultSet.getString("ROLE"));
-                    Long companyId = resultSet.getLong("COMPANY_ID");
-                    CompanyDatabaseRepository repository = new CompanyDatabaseRepository();
-                    Company company = repository.findById(companyId);
-                    if(resultSet.getString("ROLE").equals("PROJECT_MANAGER")) {
-                        ProjectManager.Builder builder = new ProjectManager.Builder();
-                        ProjectManager projectManager = (ProjectManager) builder.withId(id)
-                                .withName(name)
-                                .withRole(role)
-                                .withEmployer(company)
-                                .build();
-                        employees.add(projectManager);
-                    }
-                    else {
-                        TeamMember.Builder builder = new TeamMember.Builder();
-                        TeamMember teamMember = builder.withId(id)
-                                .withName(name)
-                                .withRole(role)
-                                .withEmployer(company)
-                                .withTasks()
-                                .build();
-                        employees.add(teamMember);
+        try(EntitySession session = EntitySession.join()) {
+            try(Connection connection = database.getConnection()) {
+                ResultSet resultSet;
+                try (Statement statement = connection.createStatement()) {
+                    resultSet = statement.executeQuery(SELECT_EMPLOYEE);
+                    while (resultSet.next()) {
+                        rows.add(readRow(resultSet));
                     }
                 }
+
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
             }
+            return mapEmployees(rows, session);
+        }
+    }
 
+    /**
+     * Inserts a new employee record into the database using SQL INSERT
+     * and sets the ID assigned by the {@link IdAllocator} on the employee.
+     * The employer is evicted from the {@link SecondLevelCache}, since its cached employee list is stale.
+     *
+     * @param employee the employee entity to persist
+     * @return the ID of the saved employee
+     */
+    @Override
+    protected Long doSave(Employee employee) {
+        Database database = new Database();
+        IdAllocator idAllocator = IdAllocator.getInstance();
+        try(Connection connection = database.getConnection()) {
+            Long id = idAllocator.nextId(connection, "EMPLOYEE");
+            try(PreparedStatement preparedStatement = idAllocator.prepareInsert(connection, "EMPLOYEE", INSERT_COLUMNS, id)){
+                bindEmployee(preparedStatement, employee);
+                preparedStatement.executeUpdate();
+                employee.setId(idAllocator.getAssignedId(preparedStatement, id));
+            }
+            evictFromCache(employee);
         } catch (SQLException e) {
             throw new DatabaseException(e);
         }
-        return employees;
+        return employee.getId();
     }
 
     /**
-     * Inserts a new employee record into the database using SQL INSERT.
+     * Saves all given employees with JDBC batches in a single transaction
+     * and sets the IDs assigned by the {@link IdAllocator} on the employees.
      *
-     * @param employee the employee entity to persist
+     * @param employees the employee entities to persist
+     * @return the IDs of the saved employees, in iteration order
      */
     @Override
-    public void save(Employee employee) {
+    protected List<Long> doSaveAll(Collection<Employee> employees) {
+        List<Employee> rows = List.copyOf(employees);
         Database database = new Database();
         try(Connection connection = database.getConnection()) {
-            try(PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO EMPLOYEE(NAME, ROLE, COMPANY_ID) VALUES (?,?,?)")){
-                preparedStatement.setString(1, employee.getName());
-                preparedStatement.setString(2, employee.getRole().toString());
-                preparedStatement.setLong(3, employee.getEmployer().getId());
-                preparedStatement.executeUpdate();
+            List<Long> ids = IdAllocator.getInstance().insertBatch(connection, "EMPLOYEE", INSERT_COLUMNS, rows, this::bindEmployee);
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).setId(ids.get(i));
+                evictFromCache(rows.get(i));
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    private void evictFromCache(Employee employee) {
+        SecondLevelCache.evict(Employee.class, employee.getId());
+        SecondLevelCache.evict(Company.class, employee.getEmployer().getId());
+    }
+
+    private void bindEmployee(PreparedStatement preparedStatement, Employee employee) throws SQLException {
+        preparedStatement.setString(1, employee.getName());
+        preparedStatement.setString(2, employee.getRole().toString());
+        preparedStatement.setLong(3, employee.getEmployer().getId());
+    }
+
+    /**
+     * Reads one page of the employees of a company, ordered by ID.
+     * Pages are located with a keyset seek on the ID instead of an {@code OFFSET},
+     * so every page costs the same no matter how far into the listing it is.
+     *
+     * @param companyId the ID of the company
+     * @param after the cursor token returned with the previous page, or {@code null} for the first page
+     * @param pageSize the maximum number of employees on the page
+     * @return the page of employees
+     * @throws IllegalArgumentException if the cursor token is malformed
+     */
+    public Page<Employee> findPageByCompanyId(Long companyId, String after, int pageSize) {
+        PageCursor cursor = PageCursor.fromToken(after, 1);
+        String sql = SELECT_EMPLOYEE + " WHERE COMPANY_ID = ?" + (cursor == null ? "" : " AND ID > ?")
+                + " ORDER BY ID FETCH FIRST ? ROWS ONLY";
+        List<EmployeeRow> rows = new ArrayList<>();
+        Database database = new Database();
+        try(EntitySession session = EntitySession.join()) {
+            try(Connection connection = database.getConnection();
+                PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                int index = 1;
+                preparedStatement.setLong(index++, companyId);
+                if (cursor != null) {
+                    preparedStatement.setLong(index++, cursor.getLong(0));
+                }
+                preparedStatement.setInt(index, pageSize + 1);
+                ResultSet resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    rows.add(readRow(resultSet));
+                }
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+            return Page.of(mapEmployees(rows, session), pageSize, employee -> PageCursor.of(employee.getId()));
+        }
+    }
+
+    /**
+     * Streams all employees in batches of {@code fetchSize} rows, each read with a keyset seek on the ID.
+     * A batch is read on its own connection, which is released before the employers and the tasks of the team members
+     * of the batch are resolved with one query each, so the stream never holds two pooled connections at once.
+     * Streamed employees are not registered in the {@link EntitySession},
+     * only their employers are kept for the lifetime of the stream.
+     *
+     * @param fetchSize the number of rows read from the database per batch
+     * @return a stream of all employees, which must be closed after use
+     */
+    @Override
+    protected Stream<Employee> doStreamAll(int fetchSize) {
+        Map<Long, Company> companies = new HashMap<>();
+        Iterator<List<EmployeeRow>> batches = new Iterator<>() {
+            private List<EmployeeRow> next;
+            private Long lastId;
+            private boolean last;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !last) {
+                    next = findRowsAfter(lastId, fetchSize);
+                    last = next.size() < fetchSize;
+                }
+                return next != null && !next.isEmpty();
+            }
+
+            @Override
+            public List<EmployeeRow> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<EmployeeRow> batch = next;
+                next = null;
+                lastId = batch.getLast().id();
+                return batch;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false).flatMap(batch -> {
+            List<Long> missing = batch.stream().map(EmployeeRow::companyId).filter(id -> !companies.containsKey(id)).toList();
+            for (Company company : new CompanyDatabaseRepository().findAllById(missing)) {
+                companies.put(company.getId(), company);
+            }
+            Map<Long, List<Task>> tasks = new Database().getTasksByEmployeeFromDatabase(batch.stream()
+                    .filter(row -> row.role().equals(Role.TEAM_MEMBER))
+                    .map(EmployeeRow::id)
+                    .toList());
+            return batch.stream()
+                    .map(row -> buildEmployee(row, companies.get(row.companyId()), tasks.get(row.id())));
+        });
+    }
+
+    private List<EmployeeRow> findRowsAfter(Long lastId, int limit) {
+        String sql = SELECT_EMPLOYEE + (lastId == null ? "" : " WHERE ID > ?") + " ORDER BY ID FETCH FIRST ? ROWS ONLY";
+        List<EmployeeRow> rows = new ArrayList<>(limit);
+        Database database = new Database();
+        try(Connection connection = database.getConnection();
+            PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (lastId != null) {
+                preparedStatement.setLong(index++, lastId);
+            }
+            preparedStatement.setInt(index, limit);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                rows.add(readRow(resultSet));
             }
         } catch (SQLException e) {
             throw new DatabaseException(e);
         }
+        return rows;
+    }
+
+    private record EmployeeRow(Long id, String name, Role role, Long companyId) {}
+
+    private EmployeeRow readRow(ResultSet resultSet) throws SQLException {
+        return new EmployeeRow(resultSet.getLong("ID"), resultSet.getString("NAME"),
+                Role.valueOf(resultSet.getString("ROLE")), resultSet.getLong("COMPANY_ID"));
+    }
+
+    private List<Employee> mapEmployees(List<EmployeeRow> rows, EntitySession session) {
+        CompanyDatabaseRepository repository = new CompanyDatabaseRepository();
+        Map<Long, Company> companies = new HashMap<>();
+        for (Company company : repository.findAllById(rows.stream().map(EmployeeRow::companyId).toList())) {
+            companies.put(company.getId(), company);
+        }
+        List<Long> newTeamMemberIds = rows.stream()
+                .filter(row -> row.role().equals(Role.TEAM_MEMBER))
+                .map(EmployeeRow::id)
+                .filter(id -> session.get(Employee.class, id) == null)
+                .toList();
+        Map<Long, List<Task>> tasks = new Database().getTasksByEmployeeFromDatabase(newTeamMemberIds);
+
+        List<Employee> employees = new ArrayList<>(rows.size());
+        for (EmployeeRow row : rows) {
+            Employee employee = session.get(Employee.class, row.id());
+            if (employee == null) {
+                employee = session.register(Employee.class, buildEmployee(row, companies.get(row.companyId()), tasks.get(row.id())));
+            }
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    private Employee buildEmployee(EmployeeRow row, Company company, List<Task> tasks) {
+        if(row.role().equals(Role.PROJECT_MANAGER)) {
+            ProjectManager.Builder builder = new ProjectManager.Builder();
+            return builder.withId(row.id())
+                    .withName(row.name())
+                    .withRole(row.role())
+                    .withEmployer(company)
+                    .build();
+        }
+        TeamMember.Builder builder = new TeamMember.Builder();
+        return builder.withId(row.id())
+                .withName(row.name())
+                .withRole(row.role())
+                .withEmployer(company)
+                .withTasks(tasks)
+                .build();
     }
 }
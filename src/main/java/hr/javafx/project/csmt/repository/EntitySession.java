@@ -0,0 +1,184 @@
+package hr.javafx.project.csmt.repository;
+
+import hr.javafx.project.csmt.model.Entity;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Session-scoped identity map making sure every company, employee and task row
+ * is materialized only once per unit of work.
+ * Repositories resolve entities and references through the session bound to the current thread,
+ * so loading many employees of the same company builds that company only once.
+ * A unit of work is started explicitly with {@link #open()}, or implicitly by the outermost
+ * repository call through {@link #join()}, and ends when the opening session is closed.
+ * Entities missing from the session are looked up in the {@link SecondLevelCache} before they are loaded,
+ * and every registered entity is added to it.
+ *
+ */
+
+public final class EntitySession implements AutoCloseable {
+    private static final ThreadLocal<EntitySession> CURRENT = new ThreadLocal<>();
+
+    private final Map<Class<?>, Map<Long, Entity>> entities = new HashMap<>();
+    private final EntitySession previous;
+    private final EntitySession owner;
+
+    private EntitySession(EntitySession previous, EntitySession owner) {
+        this.previous = previous;
+        this.owner = owner;
+    }
+
+    /**
+     * Starts a new unit of work on the current thread.
+     * Entities loaded until the returned session is closed are shared between all repository calls.
+     *
+     * @return the new session, which must be closed to end the unit of work
+     */
+    public static EntitySession open() {
+        EntitySession session = new EntitySession(CURRENT.get(), null);
+        CURRENT.set(session);
+        return session;
+    }
+
+    /**
+     * Joins the unit of work of the current thread, or starts a new one if there is none.
+     * Closing a joined session has no effect, so repositories can always use it in a
+     * try-with-resources block.
+     *
+     * @return the session of the current unit of work
+     */
+    public static EntitySession join() {
+        EntitySession current = CURRENT.get();
+        if (current == null) {
+            return open();
+        }
+        return new EntitySession(null, current);
+    }
+
+    /**
+     * Returns an entity already materialized in this session, or cached in the {@link SecondLevelCache}.
+     * An entity found in the second-level cache is registered in this session.
+     *
+     * @param type the class the entity is registered under
+     * @param id the ID of the entity
+     * @param <T> the type of the entity
+     * @return the registered entity, or {@code null} if it has not been loaded yet
+     */
+    public <T extends Entity> T get(Class<T> type, Long id) {
+        Entity entity = root().entities.getOrDefault(type, Map.of()).get(id);
+        if (entity == null) {
+            entity = SecondLevelCache.get(type, id, this);
+            if (entity != null) {
+                root().entities.computeIfAbsent(type, key -> new HashMap<>()).put(id, entity);
+            }
+        }
+        return type.cast(entity);
+    }
+
+    /**
+     * Registers a freshly loaded entity. If an entity with the same ID is already registered,
+     * the existing instance is kept and returned so that callers always use one instance per row.
+     *
+     * @param type the class the entity is registered under
+     * @param entity the loaded entity
+     * @param <T> the type of the entity
+     * @return the instance registered for the entity's ID
+     */
+    public <T extends Entity> T register(Class<T> type, T entity) {
+        if (entity == null || entity.getId() == null) {
+            return entity;
+        }
+        Entity existing = root().entities.computeIfAbsent(type, key -> new HashMap<>())
+                .putIfAbsent(entity.getId(), entity);
+        if (existing != null) {
+            return type.cast(existing);
+        }
+        SecondLevelCache.put(type, entity);
+        return entity;
+    }
+
+    /**
+     * Returns the registered entity with the given ID, loading and registering it if needed.
+     *
+     * @param type the class the entity is registered under
+     * @param id the ID of the entity
+     * @param loader loads the entity when it is not registered yet
+     * @param <T> the type of the entity
+     * @return the entity, or {@code null} if the loader did not find it
+     */
+    public <T extends Entity> T resolve(Class<T> type, Long id, Function<Long, T> loader) {
+        T entity = get(type, id);
+        if (entity == null) {
+            entity = register(type, loader.apply(id));
+        }
+        return entity;
+    }
+
+    /**
+     * Returns the registered entities with the given IDs, loading all missing ones with a single loader call.
+     *
+     * @param type the class the entities are registered under
+     * @param ids the IDs of the entities
+     * @param loader loads the entities that are not registered yet
+     * @param <T> the type of the entities
+     * @return the found entities keyed by ID
+     */
+    public <T extends Entity> Map<Long, T> resolveAll(Class<T> type, Collection<Long> ids, Function<Collection<Long>, List<T>> loader) {
+        Map<Long, T> resolved = new LinkedHashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            T entity = get(type, id);
+            if (entity != null) {
+                resolved.put(id, entity);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (T entity : loader.apply(missing)) {
+                T registered = register(type, entity);
+                resolved.put(registered.getId(), registered);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Removes an entity from this session, so the next lookup reads it again.
+     *
+     * @param type the class the entity is registered under
+     * @param id the ID of the entity
+     */
+    public void evict(Class<? extends Entity> type, Long id) {
+        Map<Long, Entity> registered = root().entities.get(type);
+        if (registered != null) {
+            registered.remove(id);
+        }
+    }
+
+    /**
+     * Ends the unit of work if this session started it. Closing a joined session has no effect.
+     */
+    @Override
+    public void close() {
+        if (owner == null && CURRENT.get() == this) {
+            entities.clear();
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private EntitySession root() {
+        return owner == null ? this : owner;
+    }
+}
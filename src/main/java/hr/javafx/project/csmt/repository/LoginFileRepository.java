@@ -5,7 +5,10 @@ import hr.javafx.project.csmt.utils.LogUtils;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * File-based repository implementation for managing {@link LoginUser} entities.
@@ -28,19 +31,34 @@ public non-sealed class LoginFileRepository extends AbstractRepository<LoginUser
      * @return the matching {@link LoginUser}, or throws if not found
      */
     @Override
-    public LoginUser findById(Long id) {
+    protected LoginUser doFindById(Long id) {
         return findAll().stream()
                 .filter(e-> e.getId().equals(id))
                 .toList()
                 .getFirst();
     }
 
+    /**
+     * Retrieves the login users with the given identifiers from the local file.
+     * The file is read once regardless of the number of requested IDs.
+     *
+     * @param ids the IDs of the users to retrieve
+     * @return the matching {@link LoginUser} objects
+     */
+    @Override
+    protected List<LoginUser> doFindAllById(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        return findAll().stream()
+                .filter(e -> wanted.contains(e.getId()))
+                .toList();
+    }
+
     /**
      * Loads all login users from the binary file using deserialization.
      *
      * @return a list of all {@link LoginUser} objects stored in the file
      */
-    public List<LoginUser> findAll(){
+    protected List<LoginUser> doFindAll(){
         List<LoginUser> loginUsers = new ArrayList<>();
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(USERS_FILENAME))) {
             Object obj;
@@ -58,9 +76,10 @@ public non-sealed class LoginFileRepository extends AbstractRepository<LoginUser
      * Reads all current login users from the file, appends a new {@link LoginUser} and rewrites the entire file.
      *
      * @param lu the login user to save
+     * @return the ID of the saved login user
      */
     @Override
-    public void save(LoginUser lu) {
+    protected Long doSave(LoginUser lu) {
         List<LoginUser> loginUsers = findAll();
         loginUsers.add(lu);
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(USERS_FILENAME))) {
@@ -70,5 +89,6 @@ public non-sealed class LoginFileRepository extends AbstractRepository<LoginUser
         } catch (IOException ex) {
             LogUtils.error(ex.getMessage());
         }
+        return lu.getId();
     }
 }
@@ -0,0 +1,38 @@
+package hr.javafx.project.csmt.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single page of a keyset paginated listing.
+ * Holds the entities of the page and the cursor token pointing after its last entity,
+ * which is passed back to the repository to read the following page.
+ *
+ * @param items the entities of this page, in listing order
+ * @param nextCursor the token of the following page, or {@code null} if this is the last page
+ * @param <T> the type of the listed entities
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Builds a page from rows read with a limit of one more than the page size,
+     * so that the extra row tells whether a following page exists without counting the rows.
+     *
+     * @param rows the rows read, at most {@code pageSize + 1}
+     * @param pageSize the requested page size
+     * @param cursor creates the cursor pointing after the given entity
+     * @param <T> the type of the listed entities
+     * @return the page
+     */
+    public static <T> Page<T> of(List<T> rows, int pageSize, Function<T, PageCursor> cursor) {
+        if (rows.size() <= pageSize) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, pageSize));
+        return new Page<>(items, cursor.apply(items.getLast()).toToken());
+    }
+}
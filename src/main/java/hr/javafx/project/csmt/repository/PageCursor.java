@@ -0,0 +1,76 @@
+package hr.javafx.project.csmt.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Position in a keyset paginated listing, made of the ordering key values of the last entity read.
+ * Converted to an opaque URL-safe token that the UI holds between pages,
+ * so the next page is read with a {@code WHERE key > ?} seek instead of an {@code OFFSET} scan.
+ *
+ * @param keys the ordering key values of the last entity read
+ */
+public record PageCursor(List<String> keys) {
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates a cursor from the ordering key values of an entity.
+     *
+     * @param keys the key values, in ordering priority
+     * @return the cursor
+     */
+    public static PageCursor of(Object... keys) {
+        return new PageCursor(Arrays.stream(keys).map(String::valueOf).toList());
+    }
+
+    /**
+     * Parses a token created by {@link #toToken()}.
+     *
+     * @param token the token, or {@code null} for the first page
+     * @param keyCount the number of key values the listing is ordered by
+     * @return the cursor, or {@code null} if the token is empty
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor fromToken(String token, int keyCount) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token, e);
+        }
+        List<String> keys = List.of(decoded.split(Pattern.quote(SEPARATOR), -1));
+        if (keys.size() != keyCount) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token);
+        }
+        return new PageCursor(keys);
+    }
+
+    public String toToken() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, keys).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getLong(int index) {
+        try {
+            return Long.parseLong(keys.get(index));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor key: " + keys.get(index), e);
+        }
+    }
+
+    public LocalDate getDate(int index) {
+        try {
+            return LocalDate.parse(keys.get(index));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor key: " + keys.get(index), e);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package hr.javafx.project.csmt.repository;
+
+import hr.javafx.project.csmt.enums.Role;
+import hr.javafx.project.csmt.enums.TaskCompletion;
+import hr.javafx.project.csmt.model.Company;
+import hr.javafx.project.csmt.model.Employee;
+import hr.javafx.project.csmt.model.Entity;
+import hr.javafx.project.csmt.model.ProjectManager;
+import hr.javafx.project.csmt.model.Task;
+import hr.javafx.project.csmt.model.TeamMember;
+import hr.javafx.project.csmt.utils.Database;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Application-wide cache of companies, employees and tasks shared by all {@link EntitySession}s.
+ * An entity missing from the current session is looked up here before the repositories query the database,
+ * and every entity a session materializes is added here.
+ * Each entity type has its own region bounded to {@code cache.<region>.maxSize} entries, where the least
+ * recently used entry is evicted first, and entries expire {@code cache.<region>.ttlSeconds} seconds after
+ * they were cached. The region names are {@code company}, {@code employee} and {@code task};
+ * a maximum size of 0 disables caching for the region.
+ * Repositories and other code writing to the database evict the affected entries, so a write is
+ * visible to the next lookup without waiting for the entries to expire.
+ * The cache keeps immutable snapshots of the entities instead of the entities themselves, and every session
+ * builds its own instance from a snapshot, so no company, employee or task is shared between threads.
+ * The references of a snapshot, the employer and the tasks of an employee, are resolved through the session;
+ * a snapshot whose references are no longer cached counts as a miss.
+ *
+ */
+
+public final class SecondLevelCache {
+    private static final Map<Class<?>, Region> REGIONS = new ConcurrentHashMap<>();
+
+    private SecondLevelCache() {}
+
+    /**
+     * Builds a new instance of a cached entity that has not expired yet.
+     *
+     * @param type the class the entity is cached under
+     * @param id the ID of the entity
+     * @param session the session resolving the references of the entity
+     * @param <T> the type of the entity
+     * @return a new instance of the cached entity, or {@code null} if it is not cached
+     */
+    public static <T extends Entity> T get(Class<T> type, Long id, EntitySession session) {
+        if (id == null) {
+            return null;
+        }
+        Snapshot snapshot = region(type).get(id);
+        return snapshot == null ? null : type.cast(snapshot.restore(session));
+    }
+
+    /**
+     * Caches a snapshot of an entity loaded from the database, replacing any previously cached one.
+     * Changes made to the entity afterwards are not seen by the cache.
+     *
+     * @param type the class the entity is cached under
+     * @param entity the loaded entity
+     * @param <T> the type of the entity
+     */
+    public static <T extends Entity> void put(Class<T> type, T entity) {
+        if (entity != null && entity.getId() != null) {
+            Snapshot snapshot = snapshotOf(entity);
+            if (snapshot != null) {
+                region(type).put(entity.getId(), snapshot);
+            }
+        }
+    }
+
+    /**
+     * Removes an entity from the cache after its row has been written.
+     *
+     * @param type the class the entity is cached under
+     * @param id the ID of the entity, ignored if {@code null}
+     */
+    public static void evict(Class<? extends Entity> type, Long id) {
+        if (id != null) {
+            region(type).evict(id);
+        }
+    }
+
+    /**
+     * Removes all entities of a type from the cache, used after writes affecting many rows.
+     *
+     * @param type the class the entities are cached under
+     */
+    public static void clear(Class<? extends Entity> type) {
+        region(type).clear();
+    }
+
+    /**
+     * Returns the usage statistics of every region created so far.
+     *
+     * @return one snapshot per region
+     */
+    public static List<CacheStatistics> getStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (Region region : REGIONS.values()) {
+            statistics.add(region.getStatistics());
+        }
+        return statistics;
+    }
+
+    private static Region region(Class<?> type) {
+        return REGIONS.computeIfAbsent(type, key -> {
+            String name = key.getSimpleName().toLowerCase();
+            return new Region(name,
+                    (int) Math.max(0, Database.getLongProperty("cache." + name + ".maxSize", 1000)),
+                    TimeUnit.SECONDS.toNanos(Math.max(0, Database.getLongProperty("cache." + name + ".ttlSeconds", 300))));
+        });
+    }
+
+    private static Snapshot snapshotOf(Entity entity) {
+        return switch (entity) {
+            case Company company -> new CompanySnapshot(company.getId(), company.getName());
+            case Task task -> new TaskSnapshot(task.getId(), task.getName(), task.getDescription(), task.getDue(),
+                    task.getCompletion(), task.getCreatedBy(), task.getCompanyId());
+            case TeamMember teamMember -> new TeamMemberSnapshot(teamMember.getId(), teamMember.getName(), teamMember.getRole(),
+                    employerIdOf(teamMember), teamMember.getTasks() == null ? null : teamMember.getTasks().stream().map(Entity::getId).toList());
+            case ProjectManager projectManager -> new ProjectManagerSnapshot(projectManager.getId(), projectManager.getName(),
+                    projectManager.getRole(), employerIdOf(projectManager));
+            default -> null;
+        };
+    }
+
+    private static Long employerIdOf(Employee employee) {
+        return employee.getEmployer() == null ? null : employee.getEmployer().getId();
+    }
+
+    /**
+     * Immutable state of a cached entity.
+     */
+    private sealed interface Snapshot permits CompanySnapshot, TaskSnapshot, TeamMemberSnapshot, ProjectManagerSnapshot {
+
+        /**
+         * Builds a new instance of the entity.
+         *
+         * @param session the session resolving the references of the entity
+         * @return the new instance, or {@code null} if one of its references is no longer cached
+         */
+        Entity restore(EntitySession session);
+    }
+
+    private record CompanySnapshot(Long id, String name) implements Snapshot {
+        @Override
+        public Entity restore(EntitySession session) {
+            return new Company(id, name);
+        }
+    }
+
+    private record TaskSnapshot(Long id, String name, String description, LocalDate due, TaskCompletion completion,
+                                String createdBy, Long companyId) implements Snapshot {
+        @Override
+        public Entity restore(EntitySession session) {
+            return new Task(id, name, description, due, completion, createdBy, companyId);
+        }
+    }
+
+    private record TeamMemberSnapshot(Long id, String name, Role role, Long employerId, List<Long> taskIds) implements Snapshot {
+        @Override
+        public Entity restore(EntitySession session) {
+            Company employer = session.get(Company.class, employerId);
+            if (employerId != null && employer == null) {
+                return null;
+            }
+            List<Task> tasks = null;
+            if (taskIds != null) {
+                tasks = new ArrayList<>(taskIds.size());
+                for (Long taskId : taskIds) {
+                    Task task = session.get(Task.class, taskId);
+                    if (task == null) {
+                        return null;
+                    }
+                    tasks.add(task);
+                }
+            }
+            TeamMember.Builder builder = new TeamMember.Builder();
+            return builder.withId(id).withName(name).withRole(role).withEmployer(employer).withTasks(tasks).build();
+        }
+    }
+
+    private record ProjectManagerSnapshot(Long id, String name, Role role, Long employerId) implements Snapshot {
+        @Override
+        public Entity restore(EntitySession session) {
+            Company employer = session.get(Company.class, employerId);
+            if (employerId != null && employer == null) {
+                return null;
+            }
+            ProjectManager.Builder builder = new ProjectManager.Builder();
+            return builder.withId(id).withName(name).withRole(role).withEmployer(employer).build();
+        }
+    }
+
+    private record CachedSnapshot(Snapshot snapshot, long expiresAt) {}
+
+    /**
+     * Least recently used cache of the entities of one type.
+     */
+    private static final class Region {
+        private final String name;
+        private final int maxSize;
+        private final long ttlNanos;
+        private final Map<Long, CachedSnapshot> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+
+        private Region(String name, int maxSize, long ttlNanos) {
+            this.name = name;
+            this.maxSize = maxSize;
+            this.ttlNanos = ttlNanos;
+        }
+
+        private synchronized Snapshot get(Long id) {
+            CachedSnapshot cached = entries.get(id);
+            if (cached != null && cached.expiresAt() - System.nanoTime() <= 0) {
+                entries.remove(id);
+                expirations.increment();
+                cached = null;
+            }
+            if (cached == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return cached.snapshot();
+        }
+
+        private synchronized void put(Long id, Snapshot snapshot) {
+            if (maxSize == 0 || ttlNanos == 0) {
+                return;
+            }
+            entries.put(id, new CachedSnapshot(snapshot, System.nanoTime() + ttlNanos));
+            Iterator<CachedSnapshot> iterator = entries.values().iterator();
+            while (entries.size() > maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+
+        private synchronized void evict(Long id) {
+            entries.remove(id);
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+
+        private synchronized CacheStatistics getStatistics() {
+            return new CacheStatistics(name, entries.size(), maxSize, hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+        }
+    }
+}
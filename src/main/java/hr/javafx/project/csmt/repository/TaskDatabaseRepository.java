@@ -2,13 +2,18 @@ package hr.javafx.project.csmt.repository;
 
 import hr.javafx.project.csmt.enums.TaskCompletion;
 import hr.javafx.project.csmt.exception.DatabaseException;
+import hr.javafx.project.csmt.model.Company;
 import hr.javafx.project.csmt.model.Task;
 import hr.javafx.project.csmt.utils.Database;
+import hr.javafx.project.csmt.utils.IdAllocator;
+import hr.javafx.project.csmt.utils.ResultSetStream;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository implementation for accessing and managing {@link Task} entities via database operations.
@@ -21,16 +26,76 @@ import java.util.List;
 public non-sealed class TaskDatabaseRepository extends AbstractRepository<Task> {
 
 
+    private static final String SELECT_TASK = "SELECT ID, NAME, DESCRIPTION, DATE_DUE, COMPLETION, CREATED_BY, COMPANY_ID FROM TASK";
+    private static final String INSERT_COLUMNS = "NAME, DESCRIPTION, DATE_DUE, COMPLETION, CREATED_BY, COMPANY_ID";
+    private static final String SELECT_ASSIGNED_TASK = "SELECT T.ID, T.NAME, T.DESCRIPTION, T.DATE_DUE, T.COMPLETION, T.CREATED_BY, T.COMPANY_ID, " +
+            "E.NAME AS ASSIGNED_TO FROM TASK T LEFT JOIN EMPLOYEE E ON E.ID = T.EMPLOYEE_ID";
+
     /**
-     * Retrieves a task by its unique identifier from the database.
-     * Loads all tasks and filters them by the id.
+     * Retrieves a task by its unique identifier from the database using a primary key lookup,
+     * unless the task has already been loaded in the current {@link EntitySession}.
      *
      * @param id the ID of the task to retrieve
      * @return the matching {@link Task}, or {@code null} if not found
      */
     @Override
-    public Task findById(Long id) {
-        return findAll().stream().filter(task -> task.getId().equals(id)).findFirst().orElse(null);
+    protected Task doFindById(Long id) {
+        try(EntitySession session = EntitySession.join()) {
+            Task task = session.get(Task.class, id);
+            if (task != null) {
+                return task;
+            }
+            Database database = new Database();
+            try(Connection connection = database.getConnection()) {
+                try(PreparedStatement preparedStatement = connection.prepareStatement(SELECT_TASK + " WHERE ID = ?")) {
+                    preparedStatement.setLong(1, id);
+                    ResultSet resultSet = preparedStatement.executeQuery();
+                    return resultSet.next() ? mapTask(resultSet, session) : null;
+                }
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the tasks with the given IDs using a single {@code IN (...)} query
+     * per {@link Database#IN_CLAUSE_CHUNK_SIZE} identifiers.
+     * Tasks already loaded in the current {@link EntitySession} are not read again.
+     *
+     * @param ids the identifiers of the tasks to retrieve
+     * @return the tasks found, in no particular order
+     */
+    @Override
+    protected List<Task> doFindAllById(Collection<Long> ids) {
+        try(EntitySession session = EntitySession.join()) {
+            return new ArrayList<>(session.resolveAll(Task.class, ids, missing -> loadAllById(missing, session)).values());
+        }
+    }
+
+    private List<Task> loadAllById(Collection<Long> ids, EntitySession session) {
+        List<Task> tasks = new ArrayList<>();
+        Database database = new Database();
+        List<List<Long>> chunks = Database.inClauseChunks(ids);
+        if (chunks.isEmpty()) {
+            return tasks;
+        }
+        try(Connection connection = database.getConnection()) {
+            for (List<Long> chunk : chunks) {
+                try(PreparedStatement preparedStatement = connection.prepareStatement(SELECT_TASK + " WHERE ID IN (" + Database.placeholders(chunk.size()) + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        preparedStatement.setLong(i + 1, chunk.get(i));
+                    }
+                    ResultSet resultSet = preparedStatement.executeQuery();
+                    while (resultSet.next()) {
+                        tasks.add(mapTask(resultSet, session));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        return tasks;
     }
 
 
@@ -41,22 +106,14 @@ public non-sealed class TaskDatabaseRepository extends AbstractRepository<Task>
      * @return a list of all tasks stored in the database
      */
     @Override
-    public List<Task> findAll() {
+    protected List<Task> doFindAll() {
         List<Task> tasks = new ArrayList<>();
         Database database = new Database();
-        try(Connection connection = database.getConnection()) {
+        try(EntitySession session = EntitySession.join(); Connection connection = database.getConnection()) {
             try(Statement statement = connection.createStatement()) {
-                ResultSet resultSet = statement.executeQuery("SELECT ID, NAME, DESCRIPTION, DATE_DUE, COMPLETION, CREATED_BY, COMPANY_ID FROM TASK");
+                ResultSet resultSet = statement.executeQuery(SELECT_TASK);
                 while (resultSet.next()) {
-                    Long id = resultSet.getLong("ID");
-                    String name = resultSet.getString("NAME");
-                    String description = resultSet.getString("DESCRIPTION");
-                    LocalDate dateDue = LocalDate.parse(resultSet.getString("DATE_DUE"));
-                    TaskCompletion status = TaskCompletion.valueOf(resultSet.getString("COMPLETION"));
-                    String createdBy = resultSet.getString("CREATED_BY");
-                    Long companyId = resultSet.getLong("COMPANY_ID");
-                    Task task = new Task(id, name, description, dateDue, status,createdBy, companyId);
-                    tasks.add(task);
+                    tasks.add(mapTask(resultSet, session));
                 }
             }
         } catch (SQLException e) {
@@ -67,26 +124,140 @@ public non-sealed class TaskDatabaseRepository extends AbstractRepository<Task>
     }
 
     /**
-     * Saves a new task to the database using an SQL INSERT statement.
+     * Saves a new task to the database using an SQL INSERT statement
+     * and sets the ID assigned by the {@link IdAllocator} on the task.
+     * The company is evicted from the {@link SecondLevelCache}, since its cached task list is stale.
      *
      * @param task the task entity to persist
+     * @return the ID of the saved task
      */
     @Override
-    public void save(Task task) {
+    protected Long doSave(Task task) {
         Database database = new Database();
+        IdAllocator idAllocator = IdAllocator.getInstance();
         try(Connection connection = database.getConnection()) {
-            try(PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO TASK(NAME, DESCRIPTION, DATE_DUE, COMPLETION, CREATED_BY, COMPANY_ID) VALUES (?,?,?,?,?,?)")){
-                preparedStatement.setString(1, task.getName());
-                preparedStatement.setString(2, task.getDescription());
-                preparedStatement.setDate(3, Date.valueOf(task.getDue()));
-                preparedStatement.setString(4, task.getCompletion().toString());
-                preparedStatement.setString(5, task.getCreatedBy());
-                preparedStatement.setLong(6, task.getCompanyId());
+            Long id = idAllocator.nextId(connection, "TASK");
+            try(PreparedStatement preparedStatement = idAllocator.prepareInsert(connection, "TASK", INSERT_COLUMNS, id)){
+                bindTask(preparedStatement, task);
                 preparedStatement.executeUpdate();
+                task.setId(idAllocator.getAssignedId(preparedStatement, id));
             }
+            evictFromCache(task);
 
         } catch (SQLException e) {
             throw new DatabaseException("Error while adding task to the database", e);
         }
+        return task.getId();
+    }
+
+    /**
+     * Saves all given tasks with JDBC batches in a single transaction
+     * and sets the IDs assigned by the {@link IdAllocator} on the tasks.
+     *
+     * @param tasks the task entities to persist
+     * @return the IDs of the saved tasks, in iteration order
+     */
+    @Override
+    protected List<Long> doSaveAll(Collection<Task> tasks) {
+        List<Task> rows = List.copyOf(tasks);
+        Database database = new Database();
+        try(Connection connection = database.getConnection()) {
+            List<Long> ids = IdAllocator.getInstance().insertBatch(connection, "TASK", INSERT_COLUMNS, rows, this::bindTask);
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).setId(ids.get(i));
+                evictFromCache(rows.get(i));
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error while adding tasks to the database", e);
+        }
+    }
+
+    private void evictFromCache(Task task) {
+        SecondLevelCache.evict(Task.class, task.getId());
+        SecondLevelCache.evict(Company.class, task.getCompanyId());
+    }
+
+    private void bindTask(PreparedStatement preparedStatement, Task task) throws SQLException {
+        preparedStatement.setString(1, task.getName());
+        preparedStatement.setString(2, task.getDescription());
+        preparedStatement.setDate(3, Date.valueOf(task.getDue()));
+        preparedStatement.setString(4, task.getCompletion().toString());
+        preparedStatement.setString(5, task.getCreatedBy());
+        preparedStatement.setLong(6, task.getCompanyId());
+    }
+
+    /**
+     * Reads one page of the uncompleted tasks of a company, ordered by due date and ID,
+     * each with the name of its assignee joined from EMPLOYEE.
+     * Pages are located with a keyset seek on {@code (DATE_DUE, ID)} instead of an {@code OFFSET},
+     * so every page costs the same no matter how far into the listing it is or how many employees the company has.
+     *
+     * @param companyId the ID of the company
+     * @param after the cursor token returned with the previous page, or {@code null} for the first page
+     * @param pageSize the maximum number of tasks on the page
+     * @return the page of tasks with their assignees
+     * @throws IllegalArgumentException if the cursor token is malformed
+     */
+    public Page<AssignedTask> findPageByCompanyId(Long companyId, String after, int pageSize) {
+        PageCursor cursor = PageCursor.fromToken(after, 2);
+        String sql = SELECT_ASSIGNED_TASK + " WHERE T.COMPANY_ID = ? AND T.COMPLETION <> ?"
+                + (cursor == null ? "" : " AND (T.DATE_DUE > ? OR (T.DATE_DUE = ? AND T.ID > ?))")
+                + " ORDER BY T.DATE_DUE, T.ID FETCH FIRST ? ROWS ONLY";
+        List<AssignedTask> tasks = new ArrayList<>();
+        Database database = new Database();
+        try(EntitySession session = EntitySession.join(); Connection connection = database.getConnection()) {
+            try(PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                int index = 1;
+                preparedStatement.setLong(index++, companyId);
+                preparedStatement.setString(index++, TaskCompletion.COMPLETED.toString());
+                if (cursor != null) {
+                    Date dateDue = Date.valueOf(cursor.getDate(0));
+                    preparedStatement.setDate(index++, dateDue);
+                    preparedStatement.setDate(index++, dateDue);
+                    preparedStatement.setLong(index++, cursor.getLong(1));
+                }
+                preparedStatement.setInt(index, pageSize + 1);
+                ResultSet resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    tasks.add(new AssignedTask(mapTask(resultSet, session), resultSet.getString("ASSIGNED_TO")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        return Page.of(tasks, pageSize, assigned -> PageCursor.of(assigned.task().getDue(), assigned.task().getId()));
+    }
+
+    /**
+     * Streams all tasks through a forward-only cursor, fetching {@code fetchSize} rows per round trip.
+     * Streamed tasks are not registered in the {@link EntitySession}, so memory use stays constant
+     * no matter how many rows the table holds.
+     *
+     * @param fetchSize the number of rows fetched from the database per round trip
+     * @return a stream of all tasks, which must be closed after use
+     */
+    @Override
+    protected Stream<Task> doStreamAll(int fetchSize) {
+        return ResultSetStream.of(SELECT_TASK, preparedStatement -> {}, fetchSize, this::readTask);
+    }
+
+    private Task mapTask(ResultSet resultSet, EntitySession session) throws SQLException {
+        Task registered = session.get(Task.class, resultSet.getLong("ID"));
+        if (registered != null) {
+            return registered;
+        }
+        return session.register(Task.class, readTask(resultSet));
+    }
+
+    private Task readTask(ResultSet resultSet) throws SQLException {
+        Long id = resultSet.getLong("ID");
+        String name = resultSet.getString("NAME");
+        String description = resultSet.getString("DESCRIPTION");
+        LocalDate dateDue = LocalDate.parse(resultSet.getString("DATE_DUE"));
+        TaskCompletion status = TaskCompletion.valueOf(resultSet.getString("COMPLETION"));
+        String createdBy = resultSet.getString("CREATED_BY");
+        Long companyId = resultSet.getLong("COMPANY_ID");
+        return new Task(id, name, description, dateDue, status,createdBy, companyId);
     }
 }
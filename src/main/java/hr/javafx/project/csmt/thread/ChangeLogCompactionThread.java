@@ -0,0 +1,27 @@
+package hr.javafx.project.csmt.thread;
+
+import hr.javafx.project.csmt.utils.ChangeLog;
+import hr.javafx.project.csmt.utils.LogUtils;
+
+/**
+ * Runnable implementation that rotates, expires and archives the segments of the {@link ChangeLog}.
+ * Scheduled periodically in the background by {@link ChangeLog#startScheduledCompaction()},
+ * so a failed run is logged and retried on the next schedule instead of stopping the compaction.
+ * No exception may escape, since the scheduler cancels a task that throws.
+ *
+ */
+public class ChangeLogCompactionThread implements Runnable {
+
+    /**
+     * Implementation of the method run from the {@link Runnable} interface
+     * that compacts the change log.
+     */
+    @Override
+    public void run() {
+        try {
+            ChangeLog.compact();
+        } catch (RuntimeException e) {
+            LogUtils.error("Change log compaction failed: " + e.getMessage());
+        }
+    }
+}
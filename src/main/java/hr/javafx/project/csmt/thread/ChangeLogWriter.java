@@ -0,0 +1,160 @@
+package hr.javafx.project.csmt.thread;
+
+import hr.javafx.project.csmt.jfr.ChangeLogEvent;
+import hr.javafx.project.csmt.model.Change;
+import hr.javafx.project.csmt.utils.ChangeLog;
+import hr.javafx.project.csmt.utils.Database;
+import hr.javafx.project.csmt.utils.LogUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single writer of the {@link ChangeLog}, so that changes saved from any thread are appended
+ * one after another without the saving thread touching the file.
+ * Saved changes are put on a lock-free queue shared by all producers and a single background thread
+ * drains it: every change waiting in the queue, up to {@code changeLog.maxBatchSize} (512 by default),
+ * is appended with one write and stored on the device with one fsync. Changes saved while a batch is written
+ * wait for the next one, so the more changes are saved at once the fewer fsyncs each of them costs.
+ * Every saved change gets a future completed once the change is durable, or failed if it could not be written.
+ * The writer thread is started on the first save and stopped by {@link #shutdown()}.
+ *
+ */
+public class ChangeLogWriter {
+    private static final Queue<PendingWrite> QUEUE = new ConcurrentLinkedQueue<>();
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static volatile Writer writer;
+
+    private ChangeLogWriter() {}
+
+    private record PendingWrite(Change change, long submittedAt, CompletableFuture<Void> durable) {}
+
+    /**
+     * Queues a change to be appended to the change log.
+     *
+     * @param change the change to append
+     * @return a future completed on the writer thread once the change is stored on the device
+     */
+    public static CompletableFuture<Void> submit(Change change) {
+        return enqueue(change);
+    }
+
+    /**
+     * Returns a future completed once every change queued before this call has been written.
+     *
+     * @return a future completed on the writer thread once the queued changes are stored on the device
+     */
+    public static CompletableFuture<Void> flush() {
+        return enqueue(null);
+    }
+
+    /**
+     * Writes the queued changes, stops the writer thread and closes the change log.
+     * A change saved afterwards starts the writer thread again.
+     */
+    public static synchronized void shutdown() {
+        Writer current = writer;
+        if (current != null) {
+            writer = null;
+            current.stopping = true;
+            LockSupport.unpark(current.thread);
+            try {
+                current.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (current.thread.isAlive()) {
+                LogUtils.error("Change log writer still running at shutdown");
+            }
+        }
+        ChangeLog.close();
+    }
+
+    private static CompletableFuture<Void> enqueue(Change change) {
+        PendingWrite write = new PendingWrite(change, System.nanoTime(), new CompletableFuture<>());
+        QUEUE.offer(write);
+        Writer current = writer;
+        if (current == null) {
+            current = start();
+        }
+        if (current.parked) {
+            LockSupport.unpark(current.thread);
+        }
+        return write.durable();
+    }
+
+    private static synchronized Writer start() {
+        if (writer == null) {
+            Writer started = new Writer();
+            started.thread = new Thread(started, "change-log-writer");
+            started.thread.setDaemon(true);
+            writer = started;
+            started.thread.start();
+        }
+        return writer;
+    }
+
+    private static final class Writer implements Runnable {
+        private Thread thread;
+        private volatile boolean parked;
+        private volatile boolean stopping;
+
+        @Override
+        public void run() {
+            int maxBatchSize = (int) Math.max(1, Database.getLongProperty("changeLog.maxBatchSize", 512));
+            List<PendingWrite> batch = new ArrayList<>();
+            while (true) {
+                PendingWrite write;
+                while (batch.size() < maxBatchSize && (write = QUEUE.poll()) != null) {
+                    batch.add(write);
+                }
+                if (!batch.isEmpty()) {
+                    write(batch);
+                    batch.clear();
+                } else if (stopping) {
+                    if (QUEUE.isEmpty()) {
+                        return;
+                    }
+                } else {
+                    parked = true;
+                    if (QUEUE.isEmpty() && !stopping) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        private void write(List<PendingWrite> batch) {
+            ChangeLogEvent event = new ChangeLogEvent();
+            event.begin();
+            long waitTime = System.nanoTime() - batch.get(0).submittedAt();
+            List<Change> changes = new ArrayList<>(batch.size());
+            for (PendingWrite write : batch) {
+                if (write.change() != null) {
+                    changes.add(write.change());
+                }
+            }
+            try {
+                ChangeLog.appendAll(changes, true);
+                batch.forEach(write -> write.durable().complete(null));
+            } catch (RuntimeException e) {
+                LogUtils.error("Failed to write " + changes.size() + " changes to the change log: " + e.getMessage());
+                batch.forEach(write -> write.durable().completeExceptionally(e));
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "append";
+                event.changes = changes.size();
+                event.fileSize = ChangeLog.size();
+                event.waitTime = waitTime;
+                event.commit();
+            }
+        }
+    }
+}
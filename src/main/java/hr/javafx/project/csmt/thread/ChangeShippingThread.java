@@ -0,0 +1,31 @@
+package hr.javafx.project.csmt.thread;
+
+import hr.javafx.project.csmt.utils.ChangeShipper;
+import hr.javafx.project.csmt.utils.LogUtils;
+
+/**
+ * Runnable implementation that ships the changes of the local change log into the database
+ * using {@link ChangeShipper}. Scheduled periodically in the background by
+ * {@link ChangeShipper#startScheduledShipping()}, so while the database is unavailable a failed run
+ * is logged and retried on the next schedule, and the changes wait in the change log.
+ * No exception may escape, since the scheduler cancels a task that throws.
+ *
+ */
+public class ChangeShippingThread implements Runnable {
+
+    /**
+     * Implementation of the method run from the {@link Runnable} interface
+     * that ships the changes written since the last run.
+     */
+    @Override
+    public void run() {
+        try {
+            int shipped = new ChangeShipper().shipPendingChanges();
+            if (shipped > 0) {
+                LogUtils.info("Shipped " + shipped + " changes to the database");
+            }
+        } catch (RuntimeException e) {
+            LogUtils.error("Change shipping failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package hr.javafx.project.csmt.thread;
+
+import hr.javafx.project.csmt.utils.ActionScope;
+import hr.javafx.project.csmt.utils.LogUtils;
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs database work off the JavaFX application thread.
+ * Every submitted call runs on its own virtual thread, so blocking JDBC round trips
+ * never freeze the UI and many of them can wait on the connection pool at once.
+ * The returned futures complete on the JavaFX application thread, so the stages
+ * chained onto them can update controls directly. When the JavaFX toolkit is not running,
+ * they complete on the virtual thread that ran the call instead.
+ * A call submitted during a UI action stays in the action's {@link ActionScope}, and so do the stages
+ * chained onto the returned future before it completes.
+ *
+ */
+public class DatabaseExecutor {
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("database-", 0).factory());
+
+    private DatabaseExecutor() {}
+
+    /**
+     * Runs the given call on a virtual thread.
+     *
+     * @param call the database work to run
+     * @param <T> the type of the result
+     * @return a future completed with the result, or with the thrown exception, on the JavaFX application thread
+     */
+    public static <T> CompletableFuture<T> submit(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ActionScope scope = ActionScope.retainCurrent();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return ActionScope.callWithin(scope, call);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR).whenComplete((value, throwable) -> runOnFxThread(() -> {
+            try {
+                ActionScope.callWithin(scope, () -> {
+                    if (throwable != null) {
+                        result.completeExceptionally(unwrap(throwable));
+                    } else {
+                        result.complete(value);
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                LogUtils.error(e.getMessage());
+            } finally {
+                ActionScope.release(scope);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Runs the given work on a virtual thread.
+     *
+     * @param work the database work to run
+     * @return a future completed on the JavaFX application thread once the work is done
+     */
+    public static CompletableFuture<Void> run(Runnable work) {
+        return submit(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the exception thrown by the database call behind a failed future.
+     *
+     * @param throwable the exception the future was completed with
+     * @return the original exception
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Stops accepting new work and waits briefly for the running calls to finish.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(5, TimeUnit.SECONDS)) {
+                LogUtils.error("Database calls still running at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands the runnable to the JavaFX application thread, or runs it on the current worker thread
+     * when the JavaFX toolkit is not running.
+     */
+    private static void runOnFxThread(Runnable runnable) {
+        try {
+            Platform.runLater(runnable);
+        } catch (IllegalStateException e) {
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package hr.javafx.project.csmt.thread;
+
+import hr.javafx.project.csmt.utils.Database;
+import hr.javafx.project.csmt.utils.LogUtils;
+import javafx.application.Platform;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Watchdog detecting event handlers that block the JavaFX application thread.
+ * A background thread keeps one probe queued on the application thread with {@link Platform#runLater(Runnable)};
+ * as long as the thread is free to process events and pulses the probe runs within a few milliseconds.
+ * When a probe has waited longer than {@code fx.stallThresholdMillis} milliseconds (200 by default)
+ * the stack of the application thread is captured while it is still blocked, the stall is attributed to the
+ * innermost controller on that stack and logged with the stack trace, and its duration is logged once the thread
+ * is free again. The number of stalls per controller class is logged when the watchdog stops.
+ * A threshold of 0 disables the watchdog.
+ *
+ */
+public class FxStallWatchdog {
+    private static final String CONTROLLER_PACKAGE = "hr.javafx.project.csmt.controller.";
+    private static final String APPLICATION_PACKAGE = "hr.javafx.project.csmt.";
+    private static final int MAX_LOGGED_FRAMES = 40;
+
+    private static final Map<String, AtomicLong> STALLS = new ConcurrentHashMap<>();
+    private static final AtomicLong probePostedAt = new AtomicLong();
+    private static ScheduledExecutorService scheduler;
+    private static Thread fxThread;
+    private static long thresholdNanos;
+    private static volatile String stalledIn;
+
+    private FxStallWatchdog() {}
+
+    /**
+     * Starts watching the JavaFX application thread. Must be called on the application thread.
+     */
+    public static synchronized void start() {
+        long thresholdMillis = Database.getLongProperty("fx.stallThresholdMillis", 200);
+        if (scheduler != null || thresholdMillis <= 0) {
+            return;
+        }
+        fxThread = Thread.currentThread();
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fx-stall-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(10, thresholdMillis / 4);
+        scheduler.scheduleAtFixedRate(FxStallWatchdog::check, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the watchdog started with {@link #start()} and logs the number of stalls per controller.
+     */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            probePostedAt.set(0);
+            if (!STALLS.isEmpty()) {
+                LogUtils.info("JavaFX application thread stalls per controller: " + getStallCounts());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of stalls of the JavaFX application thread detected so far, per controller class.
+     *
+     * @return the stall count per simple name of the controller class, sorted by name
+     */
+    public static Map<String, Long> getStallCounts() {
+        return STALLS.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                entry -> entry.getValue().get(), Long::sum, TreeMap::new));
+    }
+
+    private static void check() {
+        try {
+            long postedAt = probePostedAt.get();
+            long now = System.nanoTime();
+            if (postedAt == 0) {
+                probePostedAt.set(now);
+                Platform.runLater(FxStallWatchdog::probe);
+            } else if (stalledIn == null && now - postedAt > thresholdNanos) {
+                reportStall(postedAt, now);
+            }
+        } catch (RuntimeException e) {
+            LogUtils.error("FX stall watchdog check failed: " + e.getMessage());
+        }
+    }
+
+    private static void probe() {
+        long postedAt = probePostedAt.getAndSet(0);
+        String controller = stalledIn;
+        if (controller != null && postedAt != 0) {
+            stalledIn = null;
+            LogUtils.warn(String.format("JavaFX application thread stall in %s ended after %d ms",
+                    controller, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - postedAt)));
+        }
+    }
+
+    private static void reportStall(long postedAt, long now) {
+        StackTraceElement[] stack = fxThread.getStackTrace();
+        if (probePostedAt.get() != postedAt) {
+            return;
+        }
+        String controller = findController(stack);
+        stalledIn = controller;
+        STALLS.computeIfAbsent(controller, key -> new AtomicLong()).incrementAndGet();
+        String frames = Arrays.stream(stack).limit(MAX_LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame)
+                .collect(Collectors.joining(System.lineSeparator()));
+        LogUtils.warn(String.format("JavaFX application thread blocked for more than %d ms in %s:%n%s",
+                TimeUnit.NANOSECONDS.toMillis(now - postedAt), controller, frames));
+    }
+
+    private static String findController(StackTraceElement[] stack) {
+        String applicationClass = null;
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (className.startsWith(CONTROLLER_PACKAGE)) {
+                return simpleName(className);
+            }
+            if (applicationClass == null && className.startsWith(APPLICATION_PACKAGE)) {
+                applicationClass = simpleName(className);
+            }
+        }
+        return applicationClass != null ? applicationClass : "unknown";
+    }
+
+    private static String simpleName(String className) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int nested = simpleName.indexOf('$');
+        return nested > 0 ? simpleName.substring(0, nested) : simpleName;
+    }
+}
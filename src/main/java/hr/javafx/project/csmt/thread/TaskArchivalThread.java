@@ -0,0 +1,31 @@
+package hr.javafx.project.csmt.thread;
+
+import hr.javafx.project.csmt.utils.LogUtils;
+import hr.javafx.project.csmt.utils.TaskArchiver;
+
+/**
+ * Runnable implementation that moves old completed tasks into the archive table
+ * using {@link TaskArchiver}. Scheduled periodically in the background by
+ * {@link TaskArchiver#startScheduledArchival()}, so a failed run is logged
+ * and retried on the next schedule instead of stopping the archival.
+ * No exception may escape, since the scheduler cancels a task that throws.
+ *
+ */
+public class TaskArchivalThread implements Runnable {
+
+    /**
+     * Implementation of the method run from the {@link Runnable} interface
+     * that archives the completed tasks older than the configured age.
+     */
+    @Override
+    public void run() {
+        try {
+            int archived = new TaskArchiver().archiveCompletedTasks();
+            if (archived > 0) {
+                LogUtils.info("Archived " + archived + " completed tasks");
+            }
+        } catch (RuntimeException e) {
+            LogUtils.error("Task archival failed: " + e.getMessage());
+        }
+    }
+}
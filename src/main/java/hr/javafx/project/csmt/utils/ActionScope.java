@@ -0,0 +1,195 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.exception.RepeatedQueryException;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Scope around a single UI action, such as logging in or assigning a task, used to detect N+1 query patterns.
+ * While a scope is open, every statement executed and connection acquired on its behalf is counted,
+ * statements being grouped by their {@link QueryMetrics#getShape(String) shape}.
+ * Database work submitted through {@link hr.javafx.project.csmt.thread.DatabaseExecutor} during the action
+ * stays in the scope, so does the code reacting to its result, and the scope ends once the action
+ * and all of that work are done.
+ * A shape executed more than {@code nplusone.threshold} times (10 by default) or more than
+ * {@code nplusone.connectionThreshold} connections (20 by default) within one scope is reported
+ * according to {@code nplusone.mode}: {@code warn} (the default) logs a warning, {@code fail} throws a
+ * {@link RepeatedQueryException} from the offending statement, which makes tests fail, and {@code off}
+ * disables the detection. The settings are read once, when the class is initialized,
+ * so counting a statement never touches the shared properties.
+ *
+ */
+
+public final class ActionScope implements AutoCloseable {
+    private static final ThreadLocal<ActionScope> CURRENT = new ThreadLocal<>();
+    private static final String MODE = Database.getProperties().getProperty("nplusone.mode", "warn").trim().toLowerCase();
+    private static final long STATEMENT_THRESHOLD = Database.getLongProperty("nplusone.threshold", 10);
+    private static final long CONNECTION_THRESHOLD = Database.getLongProperty("nplusone.connectionThreshold", 20);
+
+    private final String name;
+    private final ActionScope previous;
+    private final Map<String, AtomicLong> statements = new ConcurrentHashMap<>();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicInteger holders = new AtomicInteger(1);
+    private final long startNanos = System.nanoTime();
+    private boolean closed;
+
+    private ActionScope(String name, ActionScope previous) {
+        this.name = name;
+        this.previous = previous;
+    }
+
+    /**
+     * Opens a scope for a UI action on the current thread.
+     *
+     * @param name the name of the action, used in the reports
+     * @return the new scope, which must be closed at the end of the action
+     */
+    public static ActionScope open(String name) {
+        ActionScope scope = new ActionScope(name, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Keeps the scope of the current thread open until {@link #release(ActionScope)} is called,
+     * so that work handed over to another thread is still counted in it.
+     *
+     * @return the retained scope, or {@code null} if the current thread is not in a scope
+     */
+    public static ActionScope retainCurrent() {
+        ActionScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.holders.incrementAndGet();
+        }
+        return scope;
+    }
+
+    /**
+     * Runs the given call within a retained scope on the current thread.
+     *
+     * @param scope the scope to run in, or {@code null} to run the call outside of any scope
+     * @param call the work to run
+     * @param <T> the type of the result
+     * @return the result of the call
+     * @throws Exception if the call fails
+     */
+    public static <T> T callWithin(ActionScope scope, Callable<T> call) throws Exception {
+        if (scope == null) {
+            return call.call();
+        }
+        ActionScope outer = CURRENT.get();
+        CURRENT.set(scope);
+        try {
+            return call.call();
+        } finally {
+            restore(outer);
+        }
+    }
+
+    /**
+     * Releases a scope retained with {@link #retainCurrent()}.
+     *
+     * @param scope the retained scope, ignored if {@code null}
+     */
+    public static void release(ActionScope scope) {
+        if (scope != null) {
+            scope.releaseHolder();
+        }
+    }
+
+    /**
+     * Counts a statement executed on the current thread in its scope.
+     *
+     * @param sql the executed SQL
+     * @throws RepeatedQueryException if the statement exceeds the threshold and the detection is set to fail
+     */
+    static void recordStatement(String sql) {
+        ActionScope scope = CURRENT.get();
+        if (scope == null || MODE.equals("off")) {
+            return;
+        }
+        String shape = QueryMetrics.getShape(sql);
+        long count = scope.statements.computeIfAbsent(shape, key -> new AtomicLong()).incrementAndGet();
+        if (count == STATEMENT_THRESHOLD + 1) {
+            scope.report("statement executed more than " + STATEMENT_THRESHOLD + " times: " + shape);
+        }
+    }
+
+    /**
+     * Counts a connection acquired on the current thread in its scope.
+     *
+     * @throws RepeatedQueryException if the connections exceed the threshold and the detection is set to fail
+     */
+    static void recordConnection() {
+        ActionScope scope = CURRENT.get();
+        if (scope == null || MODE.equals("off")) {
+            return;
+        }
+        long count = scope.connections.incrementAndGet();
+        if (count == CONNECTION_THRESHOLD + 1) {
+            scope.report("more than " + CONNECTION_THRESHOLD + " connections acquired");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of executions of every statement shape counted so far.
+     *
+     * @return the execution count per statement shape
+     */
+    public Map<String, Long> getStatementCounts() {
+        return statements.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+    }
+
+    public long getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Ends the action on the thread that opened the scope.
+     * The scope itself ends once the database work retained by the action is done as well.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            if (CURRENT.get() == this) {
+                restore(previous);
+            }
+            releaseHolder();
+        }
+    }
+
+    private void releaseHolder() {
+        if (holders.decrementAndGet() == 0 && !MODE.equals("off")) {
+            long statementCount = statements.values().stream().mapToLong(AtomicLong::get).sum();
+            LogUtils.info(String.format("Action %s: %d statements in %d shapes, %d connections, %.1f ms",
+                    name, statementCount, statements.size(), connections.get(), (System.nanoTime() - startNanos) / 1_000_000.0));
+        }
+    }
+
+    private void report(String problem) {
+        String message = "Possible N+1 queries in action " + name + ": " + problem;
+        if (MODE.equals("fail")) {
+            throw new RepeatedQueryException(message);
+        }
+        LogUtils.warn(message);
+    }
+
+    private static void restore(ActionScope scope) {
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.exception.ChangeLogException;
+import hr.javafx.project.csmt.model.Change;
+import hr.javafx.project.csmt.thread.ChangeLogCompactionThread;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of the {@link Change} records made throughout the application, stored as a sequence of
+ * {@link ChangeLogSegment segments} in {@link #LOG_DIRECTORY}. Appending a change writes only its own record
+ * to the last segment, so it costs the same no matter how many changes were recorded before.
+ * Once the last segment reaches {@code changeLog.segmentBytes} bytes (4 MB by default) or its first change was appended more than
+ * {@code changeLog.segmentMaxAgeHours} hours ago (24 by default) it is sealed together with its index and a new segment is started.
+ * {@link #find(ChangeQuery)} answers queries by company, author and date of change from the indexes,
+ * skipping the segments that cannot match and reading only the matching records of the others,
+ * while {@link #stream()} reads every record one at a time.
+ * A background compaction started with {@link #startScheduledCompaction()} keeps the log from growing without bounds:
+ * sealed segments whose changes are all older than {@code changeLog.compactAfterDays} days (7 by default)
+ * are merged into compressed {@link ChangeLogArchive archives}, and segments and archives whose changes are all older than
+ * {@code changeLog.retentionDays} days are deleted (0, the default, keeps every change).
+ * Queries walk the segments before the archives and stop once they have enough changes,
+ * so the queries over recent history never decompress an archive.
+ * {@link #read(Position, int)} reads the changes in the order they were written from a {@link Position} in the segments,
+ * for a {@link ChangeShipper} which keeps the segments it has not read yet from being archived with {@link #retainFrom(long)}.
+ * The {@code changeLog.*} settings are read when the class is loaded, so appending a change never goes back to the properties.
+ * The logs written by earlier versions, the single file {@link #LOG_FILE_NAME} and the Java-serialized
+ * file {@link Change#CHANGES_FILE_NAME}, are migrated into the first segment before the log is first used.
+ *
+ */
+
+public class ChangeLog {
+    public static final String LOG_DIRECTORY = "dat/changes";
+    public static final String LOG_FILE_NAME = "dat/changes.log";
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE / 2;
+    private static final int MAX_SEGMENTS_PER_ARCHIVE = 64;
+    private static final long SEGMENT_BYTES = Math.min(MAX_SEGMENT_BYTES,
+            Math.max(1024, Database.getLongProperty("changeLog.segmentBytes", 4L * 1024 * 1024)));
+    private static final long SEGMENT_MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(Database.getLongProperty("changeLog.segmentMaxAgeHours", 24));
+    private static final long COMPACT_AFTER_DAYS = Math.max(1, Database.getLongProperty("changeLog.compactAfterDays", 7));
+    private static final long RETENTION_DAYS = Database.getLongProperty("changeLog.retentionDays", 0);
+    private static final long COMPACTION_INTERVAL_MINUTES = Math.max(1, Database.getLongProperty("changeLog.compactionIntervalMinutes", 60));
+
+    private static final List<ChangeLogSegment> segments = new CopyOnWriteArrayList<>();
+    private static final List<ChangeLogArchive> archives = new CopyOnWriteArrayList<>();
+    private static final List<Path> retiredFiles = new ArrayList<>();
+    private static volatile long retainedSegmentId = Long.MAX_VALUE;
+    private static ChangeLogSegment active;
+    private static boolean legacyFileChecked;
+    private static ScheduledExecutorService scheduler;
+
+    private ChangeLog() {}
+
+    /**
+     * Position of a record in the segments of the log.
+     *
+     * @param segmentId the identifier of the segment
+     * @param offset the offset of the record in the segment
+     */
+    public record Position(long segmentId, int offset) {
+
+        /**
+         * Returns the position of the first record of the log.
+         *
+         * @return the position before every segment
+         */
+        public static Position start() {
+            return new Position(0, ChangeLogSegment.HEADER_SIZE);
+        }
+
+        /**
+         * Checks whether this position comes after another one.
+         *
+         * @param other the position to compare with
+         * @return {@code true} if this position is further in the log
+         */
+        public boolean isAfter(Position other) {
+            return segmentId != other.segmentId ? segmentId > other.segmentId : offset > other.offset;
+        }
+    }
+
+    /**
+     * Changes read from the log with {@link #read(Position, int)}.
+     *
+     * @param changes the changes, in the order they were written
+     * @param end the position following the last read change, where the next read continues
+     */
+    public record Batch(List<Change> changes, Position end) {}
+
+    /**
+     * Appends a change to the end of the log.
+     *
+     * @param change the change to append
+     * @throws ChangeLogException if the change cannot be written
+     */
+    public static void append(Change change) {
+        appendAll(List.of(change), false);
+    }
+
+    /**
+     * Appends changes to the end of the log with a single write, in the given order.
+     *
+     * @param changes the changes to append
+     * @param sync whether to wait until the changes are stored on the device before returning
+     * @throws ChangeLogException if the changes cannot be written
+     */
+    public static synchronized void appendAll(List<Change> changes, boolean sync) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        open();
+        try {
+            if (isTooOld(active)) {
+                roll();
+            }
+            active.append(changes, sync);
+            if (active.size() >= SEGMENT_BYTES) {
+                roll();
+            }
+        } catch (IOException e) {
+            close();
+            throw new ChangeLogException("Failed to append to the change log", e);
+        }
+    }
+
+    /**
+     * Returns every change in the log, oldest first, as a lazily read stream.
+     * Changes appended while the stream is read may or may not be included.
+     *
+     * @return a sequential stream of the changes, which must be closed after use
+     * @throws ChangeLogException if the log cannot be opened or a record is corrupted
+     */
+    public static Stream<Change> stream() {
+        List<ChangeLogSegment> segmentSnapshot = getSegments();
+        return Stream.concat(List.copyOf(archives).stream().flatMap(ChangeLogArchive::stream),
+                segmentSnapshot.stream().flatMap(ChangeLogSegment::stream));
+    }
+
+    /**
+     * Returns the changes matching a query, newest first.
+     *
+     * @param query the criteria the changes must match
+     * @return at most {@code query.limit()} matching changes
+     * @throws ChangeLogException if the log cannot be opened or a record is corrupted
+     */
+    public static List<Change> find(ChangeQuery query) {
+        List<Change> changes = new ArrayList<>();
+        List<ChangeLogSegment> snapshot = getSegments();
+        List<ChangeLogArchive> archiveSnapshot = List.copyOf(archives);
+        for (int i = snapshot.size() - 1; i >= 0 && changes.size() < query.limit(); i--) {
+            ChangeLogSegment segment = snapshot.get(i);
+            if (segment.mayContain(query)) {
+                segment.collect(query, changes);
+            }
+        }
+        for (int i = archiveSnapshot.size() - 1; i >= 0 && changes.size() < query.limit(); i--) {
+            ChangeLogArchive archive = archiveSnapshot.get(i);
+            if (archive.mayContain(query)) {
+                archive.collect(query, changes);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Reads the changes written since a position, in the order they were written.
+     * Archived changes are not read: a position in an archived segment continues at the oldest remaining segment.
+     *
+     * @param from the position of the first change to read
+     * @param maxChanges the maximum number of changes to read
+     * @return the read changes and the position following them
+     * @throws ChangeLogException if the log cannot be opened or a record is corrupted
+     */
+    public static Batch read(Position from, int maxChanges) {
+        List<Change> changes = new ArrayList<>();
+        long segmentId = from.segmentId();
+        int offset = from.offset();
+        for (ChangeLogSegment segment : getSegments()) {
+            if (segment.getId() < segmentId) {
+                continue;
+            }
+            if (segment.getId() > segmentId) {
+                segmentId = segment.getId();
+                offset = ChangeLogSegment.HEADER_SIZE;
+            }
+            offset = segment.read(offset, maxChanges, changes);
+            if (changes.size() >= maxChanges || !segment.isSealed() || offset < segment.size()) {
+                break;
+            }
+        }
+        return new Batch(changes, new Position(segmentId, offset));
+    }
+
+    /**
+     * Keeps the segments from the given one on, which still have to be read, from being archived or deleted.
+     *
+     * @param segmentId the identifier of the oldest segment to keep, or {@link Long#MAX_VALUE} to keep none
+     */
+    public static void retainFrom(long segmentId) {
+        retainedSegmentId = segmentId;
+    }
+
+    /**
+     * Returns the size of the log.
+     *
+     * @return the size of all segments and archives in bytes, or 0 if the log has not been opened yet
+     */
+    public static long size() {
+        return segments.stream().mapToLong(ChangeLogSegment::size).sum()
+                + archives.stream().mapToLong(ChangeLogArchive::size).sum();
+    }
+
+    /**
+     * Compacts the log: rolls the last segment if it is too old, deletes the segments and archives past the retention
+     * and merges the old sealed segments into an archive. The segments are merged without holding up appends
+     * and queries, which keep using them until the archive is complete.
+     * Merged and expired files are deleted on the next compaction, once the queries still reading them are done;
+     * a file that cannot be deleted yet, like a file still mapped on Windows, is retried on the compactions after that.
+     *
+     * @return the number of segments merged into an archive
+     * @throws ChangeLogException if the log cannot be opened or the archive cannot be written
+     */
+    public static int compact() {
+        deleteRetiredFiles();
+        List<ChangeLogSegment> merged;
+        synchronized (ChangeLog.class) {
+            open();
+            try {
+                if (isTooOld(active)) {
+                    roll();
+                }
+            } catch (IOException e) {
+                close();
+                throw new ChangeLogException("Failed to roll the change log", e);
+            }
+            deleteExpired();
+            merged = findSegmentsToArchive();
+        }
+        if (merged.isEmpty()) {
+            return 0;
+        }
+        ChangeLogArchive archive;
+        try {
+            archive = ChangeLogArchive.create(Path.of(LOG_DIRECTORY), merged);
+        } catch (IOException e) {
+            throw new ChangeLogException("Failed to archive " + merged.size() + " change log segments", e);
+        }
+        synchronized (ChangeLog.class) {
+            if (segments.containsAll(merged)) {
+                archives.add(archive);
+                segments.removeAll(merged);
+                merged.forEach(ChangeLog::retire);
+            }
+        }
+        LogUtils.info(String.format("Archived %d change log segments with %d changes into %s (%d bytes)",
+                merged.size(), archive.summary().count(), archive.getFile(), archive.size()));
+        return merged.size();
+    }
+
+    /**
+     * Starts compacting the log in the background, once right away and then every
+     * {@code changeLog.compactionIntervalMinutes} minutes (60 by default).
+     */
+    public static synchronized void startScheduledCompaction() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "change-log-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(new ChangeLogCompactionThread(), 0, COMPACTION_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Stops the background compaction started with {@link #startScheduledCompaction()}.
+     */
+    public static synchronized void stopScheduledCompaction() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Closes the segment opened for appending. The next use of the log opens it again.
+     */
+    public static synchronized void close() {
+        if (active != null) {
+            active.close();
+            active = null;
+            segments.clear();
+            archives.clear();
+        }
+    }
+
+    /**
+     * Migrates the changes of the Java-serialized file written by earlier versions into the single-file log
+     * of the previous version, which is then moved into the first segment, unless that was already done.
+     * The migrated log is written next to its final name and moved in place once complete,
+     * so an interrupted migration is simply run again.
+     *
+     * @throws ChangeLogException if the migrated log cannot be written
+     */
+    public static synchronized void migrateLegacyFile() {
+        if (legacyFileChecked) {
+            return;
+        }
+        Path legacyFile = Path.of(Change.CHANGES_FILE_NAME);
+        Path logFile = Path.of(LOG_FILE_NAME);
+        if (Files.exists(legacyFile)) {
+            try {
+                if (!Files.exists(logFile) && !Files.isDirectory(Path.of(LOG_DIRECTORY)) && Files.size(legacyFile) > 0) {
+                    Path migratedLog = Path.of(LOG_FILE_NAME + ".tmp");
+                    int migrated = 0;
+                    try (FileChannel migratedChannel = FileChannel.open(migratedLog, StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                         ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(legacyFile)))) {
+                        ChangeLogSegment.writeFully(migratedChannel, ByteBuffer.allocate(ChangeLogSegment.HEADER_SIZE).putInt(ChangeLogSegment.MAGIC).flip());
+                        for (Change change = readLegacyChange(ois); change != null; change = readLegacyChange(ois)) {
+                            ChangeLogSegment.writeFully(migratedChannel, ByteBuffer.wrap(ChangeLogSegment.toRecord(change)));
+                            migrated++;
+                        }
+                        migratedChannel.force(true);
+                    }
+                    Files.move(migratedLog, logFile, StandardCopyOption.ATOMIC_MOVE);
+                    LogUtils.info("Migrated " + migrated + " changes from " + legacyFile + " to " + logFile);
+                }
+                Files.move(legacyFile, Path.of(Change.CHANGES_FILE_NAME + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new ChangeLogException("Failed to migrate " + legacyFile + " to the change log", e);
+            }
+        }
+        legacyFileChecked = true;
+    }
+
+    private static Change readLegacyChange(ObjectInputStream ois) throws IOException {
+        try {
+            return (Change) ois.readObject();
+        } catch (EOFException e) {
+            return null;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unexpected object in " + Change.CHANGES_FILE_NAME, e);
+        }
+    }
+
+    private static synchronized List<ChangeLogSegment> getSegments() {
+        open();
+        return List.copyOf(segments);
+    }
+
+    private static synchronized void open() {
+        if (active != null) {
+            return;
+        }
+        migrateLegacyFile();
+        try {
+            Path directory = Path.of(LOG_DIRECTORY);
+            Files.createDirectories(directory);
+            List<Path> files = ChangeLogSegment.list(directory);
+            Path logFile = Path.of(LOG_FILE_NAME);
+            if (files.isEmpty() && Files.exists(logFile)) {
+                Path firstSegment = ChangeLogSegment.fileOf(directory, 1);
+                Files.move(logFile, firstSegment, StandardCopyOption.ATOMIC_MOVE);
+                LogUtils.info("Moved " + logFile + " into the change log segment " + firstSegment);
+                files = List.of(firstSegment);
+            }
+            List<ChangeLogArchive> openedArchives = new ArrayList<>();
+            for (Path archiveFile : ChangeLogArchive.list(directory)) {
+                openedArchives.add(ChangeLogArchive.open(archiveFile));
+            }
+            long lastArchivedId = openedArchives.stream().mapToLong(ChangeLogArchive::getLastId).max().orElse(0);
+            List<ChangeLogSegment> opened = new ArrayList<>(files.size() + 1);
+            for (int i = 0; i < files.size() - 1; i++) {
+                ChangeLogSegment segment = ChangeLogSegment.openSealed(files.get(i));
+                if (segment.getId() <= lastArchivedId) {
+                    retire(segment);
+                } else {
+                    opened.add(segment);
+                }
+            }
+            active = files.isEmpty() ? ChangeLogSegment.create(directory, 1) : ChangeLogSegment.openActive(files.getLast());
+            opened.add(active);
+            segments.clear();
+            segments.addAll(opened);
+            archives.clear();
+            archives.addAll(openedArchives);
+            if (active.size() >= SEGMENT_BYTES) {
+                roll();
+            }
+        } catch (IOException e) {
+            active = null;
+            segments.clear();
+            archives.clear();
+            throw new ChangeLogException("Failed to open the change log", e);
+        }
+    }
+
+    private static void roll() throws IOException {
+        active.seal();
+        active = ChangeLogSegment.create(Path.of(LOG_DIRECTORY), active.getId() + 1);
+        segments.add(active);
+    }
+
+    private static boolean isTooOld(ChangeLogSegment segment) {
+        return SEGMENT_MAX_AGE_MILLIS > 0 && segment.firstAppendedAt() < System.currentTimeMillis() - SEGMENT_MAX_AGE_MILLIS;
+    }
+
+    private static void deleteExpired() {
+        if (RETENTION_DAYS <= 0) {
+            return;
+        }
+        long cutoff = ChangeLogSegment.dateKey(LocalDateTime.now().minusDays(RETENTION_DAYS));
+        List<ChangeLogArchive> expiredArchives = archives.stream().filter(archive -> archive.summary().maxDate() < cutoff).toList();
+        List<ChangeLogSegment> expiredSegments = segments.stream()
+                .filter(segment -> segment.isSealed() && segment.getId() < retainedSegmentId && segment.summary().maxDate() < cutoff).toList();
+        if (!expiredArchives.isEmpty() || !expiredSegments.isEmpty()) {
+            archives.removeAll(expiredArchives);
+            segments.removeAll(expiredSegments);
+            expiredArchives.forEach(archive -> retiredFiles.add(archive.getFile()));
+            expiredSegments.forEach(ChangeLog::retire);
+            LogUtils.info(String.format("Deleting %d change log archives and %d segments older than %d days",
+                    expiredArchives.size(), expiredSegments.size(), RETENTION_DAYS));
+        }
+    }
+
+    private static List<ChangeLogSegment> findSegmentsToArchive() {
+        long cutoff = ChangeLogSegment.dateKey(LocalDateTime.now().minusDays(COMPACT_AFTER_DAYS));
+        List<ChangeLogSegment> merged = new ArrayList<>();
+        for (ChangeLogSegment segment : segments) {
+            if (!segment.isSealed() || segment.getId() >= retainedSegmentId || segment.summary().maxDate() >= cutoff
+                    || merged.size() == MAX_SEGMENTS_PER_ARCHIVE) {
+                break;
+            }
+            merged.add(segment);
+        }
+        return merged;
+    }
+
+    private static void retire(ChangeLogSegment segment) {
+        retiredFiles.add(segment.getFile());
+        retiredFiles.add(segment.getIndexFile());
+    }
+
+    private static synchronized void deleteRetiredFiles() {
+        retiredFiles.removeIf(file -> {
+            try {
+                Files.deleteIfExists(file);
+                return true;
+            } catch (IOException e) {
+                LogUtils.warn("Failed to delete " + file + ", retrying on the next compaction: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+}
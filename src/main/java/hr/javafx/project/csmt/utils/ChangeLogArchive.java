@@ -0,0 +1,233 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.exception.ChangeLogException;
+import hr.javafx.project.csmt.model.Change;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressed archive of the {@link ChangeLog}, holding the records of a run of old sealed {@link ChangeLogSegment segments}
+ * merged into one GZIP file. The archive starts with a magic number and the summary of its changes,
+ * followed by the records copied unchanged from the segments, so that opening an archive only decompresses its summary.
+ * The name of the archive holds the identifiers of its first and last segment, which tells the segments
+ * left behind by an interrupted compaction apart from the ones still needed.
+ * Archives are read sequentially, so they serve the queries over history older than the segments.
+ *
+ */
+
+final class ChangeLogArchive {
+    private static final int MAGIC = 0x43534131;
+    private static final String FILE_PREFIX = "archive-";
+    private static final String FILE_SUFFIX = ".gz";
+
+    private final long firstId;
+    private final long lastId;
+    private final Path file;
+    private final long size;
+    private final ChangeLogSegment.Summary summary;
+
+    private ChangeLogArchive(long firstId, long lastId, Path file, long size, ChangeLogSegment.Summary summary) {
+        this.firstId = firstId;
+        this.lastId = lastId;
+        this.file = file;
+        this.size = size;
+        this.summary = summary;
+    }
+
+    /**
+     * Lists the archive files of a change log directory.
+     *
+     * @param directory the directory of the change log
+     * @return the archive files, oldest first
+     * @throws IOException if the directory cannot be read
+     */
+    static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(FILE_PREFIX)
+                            && path.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Merges sealed segments into a new archive. The archive is written next to its final name
+     * and moved in place once complete; the segments are left for the caller to delete.
+     *
+     * @param directory the directory of the change log
+     * @param segments consecutive sealed segments, oldest first
+     * @return the created archive
+     * @throws IOException if the archive cannot be written
+     */
+    static ChangeLogArchive create(Path directory, List<ChangeLogSegment> segments) throws IOException {
+        long firstId = segments.getFirst().getId();
+        long lastId = segments.getLast().getId();
+        ChangeLogSegment.Summary summary = ChangeLogSegment.Summary.merge(
+                segments.stream().map(ChangeLogSegment::summary).toList());
+        Path file = directory.resolve(String.format("%s%016d-%016d%s", FILE_PREFIX, firstId, lastId, FILE_SUFFIX));
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporaryFile), 64 * 1024)))) {
+            output.writeInt(MAGIC);
+            summary.write(output);
+            for (ChangeLogSegment segment : segments) {
+                segment.copyRecordsTo(output);
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new ChangeLogArchive(firstId, lastId, file, Files.size(file), summary);
+    }
+
+    /**
+     * Opens an archive and reads its summary.
+     *
+     * @param file the archive file
+     * @return the opened archive
+     * @throws IOException if the archive cannot be read
+     */
+    static ChangeLogArchive open(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String[] ids = name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()).split("-");
+        try (DataInputStream input = openInput(file)) {
+            return new ChangeLogArchive(Long.parseLong(ids[0]), Long.parseLong(ids[1]), file, Files.size(file), ChangeLogSegment.Summary.read(input));
+        }
+    }
+
+    long getFirstId() {
+        return firstId;
+    }
+
+    long getLastId() {
+        return lastId;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long size() {
+        return size;
+    }
+
+    ChangeLogSegment.Summary summary() {
+        return summary;
+    }
+
+    /**
+     * Returns the changes of the archive as a stream, oldest first, decompressed while the stream is read.
+     *
+     * @return a sequential stream of the changes of the archive, which must be closed after use
+     */
+    Stream<Change> stream() {
+        DataInputStream input;
+        try {
+            input = openInput(file);
+            ChangeLogSegment.Summary.read(input);
+        } catch (IOException e) {
+            throw new ChangeLogException("Failed to open " + file, e);
+        }
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<Change>(summary.count(), Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Change> action) {
+                Change change = readNext(input);
+                if (change == null) {
+                    return false;
+                }
+                action.accept(change);
+                return true;
+            }
+        }, false).onClose(() -> {
+            try {
+                input.close();
+            } catch (IOException e) {
+                throw new ChangeLogException("Failed to close " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Checks whether the archive can hold changes matching the query, without decompressing it.
+     *
+     * @param query the query
+     * @return {@code false} if no change of the archive matches the query
+     */
+    boolean mayContain(ChangeQuery query) {
+        return summary.mayContain(query);
+    }
+
+    /**
+     * Adds the changes of the archive matching the query to the result, newest first.
+     *
+     * @param query the query
+     * @param result the list to add the matching changes to, until it holds {@code query.limit()} changes
+     * @throws ChangeLogException if the archive cannot be read
+     */
+    void collect(ChangeQuery query, List<Change> result) {
+        int wanted = query.limit() - result.size();
+        if (wanted <= 0) {
+            return;
+        }
+        Deque<Change> newest = new ArrayDeque<>();
+        try (Stream<Change> changes = stream()) {
+            changes.filter(query::matches).forEach(change -> {
+                if (newest.size() == wanted) {
+                    newest.removeFirst();
+                }
+                newest.addLast(change);
+            });
+        }
+        newest.descendingIterator().forEachRemaining(result::add);
+    }
+
+    private Change readNext(DataInputStream input) {
+        try {
+            int length;
+            try {
+                length = input.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            if (length < 0 || length > ChangeLogSegment.MAX_RECORD_SIZE) {
+                throw new ChangeLogException("Corrupted change log record of length " + length + " in " + file);
+            }
+            byte[] record = new byte[ChangeLogSegment.RECORD_HEADER_SIZE + length];
+            ByteBuffer.wrap(record).putInt(length);
+            input.readFully(record, Integer.BYTES, record.length - Integer.BYTES);
+            return ChangeLogSegment.readRecord(ByteBuffer.wrap(record), 0);
+        } catch (IOException e) {
+            throw new ChangeLogException("Failed to read " + file, e);
+        }
+    }
+
+    private static DataInputStream openInput(Path file) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 64 * 1024)));
+        try {
+            if (input.readInt() != MAGIC) {
+                throw new IOException(file + " is not a change log archive");
+            }
+            return input;
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+}
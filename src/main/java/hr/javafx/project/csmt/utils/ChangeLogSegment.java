@@ -0,0 +1,863 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.enums.Role;
+import hr.javafx.project.csmt.exception.ChangeLogException;
+import hr.javafx.project.csmt.model.Change;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the {@link ChangeLog}. A segment starts with a magic number, followed by one record per change:
+ * the length of the record, the CRC32 checksum of its content and the content itself, the fields of the change
+ * written with a {@link DataOutputStream} behind a record version.
+ * The last segment of the log is active and receives the appended changes; the others are sealed and never change.
+ * Records are read through a memory mapping of the segment, so only the records a query needs are touched.
+ * Every segment has an index of its records: a sparse index holding the range of dates of change of every
+ * block of {@value #BLOCK_SIZE} records, and the offsets of the records of every company and every author.
+ * The index of the active segment is built as records are appended; when a segment is sealed its index is written
+ * next to it in an {@code .idx} file, of which only a summary is kept in memory while the full index is
+ * loaded when a query needs it and released again under memory pressure.
+ * Old sealed segments are eventually merged into a {@link ChangeLogArchive} and deleted.
+ *
+ */
+
+final class ChangeLogSegment {
+    static final int MAGIC = 0x43534C31;
+    static final int HEADER_SIZE = Integer.BYTES;
+    static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final byte FIRST_RECORD_VERSION = 1;
+    private static final byte RECORD_VERSION = 2;
+    private static final int INDEX_MAGIC = 0x43534931;
+    private static final int BLOCK_SIZE = 64;
+    private static final String FILE_PREFIX = "segment-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final long id;
+    private final Path file;
+    private FileChannel channel;
+    private volatile long size;
+    private long firstAppendedAt = Long.MAX_VALUE;
+    private SegmentIndex activeIndex;
+    private SoftReference<SegmentIndex> sealedIndex;
+    private Summary summary;
+
+    private ChangeLogSegment(long id, Path file) {
+        this.id = id;
+        this.file = file;
+    }
+
+    /**
+     * Summary of the changes of a sealed segment or an archive, kept in memory to skip the files a query cannot match.
+     *
+     * @param count the number of changes
+     * @param minDate the key of the earliest date of change
+     * @param maxDate the key of the latest date of change
+     * @param companies the companies the changes were made in
+     * @param authors the names of the employees who made the changes
+     */
+    record Summary(int count, long minDate, long maxDate, Set<Long> companies, Set<String> authors) {
+
+        boolean mayContain(ChangeQuery query) {
+            return count > 0 && overlaps(query, minDate, maxDate)
+                    && (query.companyId() == null || companies.contains(query.companyId()))
+                    && (query.changedByName() == null || authors.contains(query.changedByName()));
+        }
+
+        static Summary merge(List<Summary> summaries) {
+            int count = 0;
+            long minDate = Long.MAX_VALUE;
+            long maxDate = Long.MIN_VALUE;
+            Set<Long> companies = new HashSet<>();
+            Set<String> authors = new HashSet<>();
+            for (Summary summary : summaries) {
+                count += summary.count();
+                minDate = Math.min(minDate, summary.minDate());
+                maxDate = Math.max(maxDate, summary.maxDate());
+                companies.addAll(summary.companies());
+                authors.addAll(summary.authors());
+            }
+            return new Summary(count, minDate, maxDate, Set.copyOf(companies), Set.copyOf(authors));
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(count);
+            output.writeLong(minDate);
+            output.writeLong(maxDate);
+            output.writeInt(companies.size());
+            for (Long company : companies) {
+                output.writeLong(company);
+            }
+            output.writeInt(authors.size());
+            for (String author : authors) {
+                writeString(output, author);
+            }
+        }
+
+        static Summary read(DataInputStream input) throws IOException {
+            int count = input.readInt();
+            long minDate = input.readLong();
+            long maxDate = input.readLong();
+            Set<Long> companies = new HashSet<>();
+            for (int i = input.readInt(); i > 0; i--) {
+                companies.add(input.readLong());
+            }
+            Set<String> authors = new HashSet<>();
+            for (int i = input.readInt(); i > 0; i--) {
+                authors.add(readString(input));
+            }
+            return new Summary(count, minDate, maxDate, Set.copyOf(companies), Set.copyOf(authors));
+        }
+    }
+
+    private record Block(int start, long minDate, long maxDate) {}
+
+    /**
+     * Start of a block of records and whether the dates of change of the block overlap the range of a query.
+     */
+    private record BlockMatch(int start, boolean matches) {}
+
+    /**
+     * Returns the file of the segment with the given identifier.
+     *
+     * @param directory the directory of the change log
+     * @param id the identifier of the segment
+     * @return the path of the segment file
+     */
+    static Path fileOf(Path directory, long id) {
+        return directory.resolve(String.format("%s%016d%s", FILE_PREFIX, id, FILE_SUFFIX));
+    }
+
+    /**
+     * Lists the segment files of a change log directory.
+     *
+     * @param directory the directory of the change log
+     * @return the segment files, oldest first
+     * @throws IOException if the directory cannot be read
+     */
+    static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(FILE_PREFIX)
+                            && path.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Creates a new, empty active segment.
+     *
+     * @param directory the directory of the change log
+     * @param id the identifier of the segment, higher than the ones of the existing segments
+     * @return the created segment
+     * @throws IOException if the segment cannot be created
+     */
+    static ChangeLogSegment create(Path directory, long id) throws IOException {
+        ChangeLogSegment segment = new ChangeLogSegment(id, fileOf(directory, id));
+        segment.channel = FileChannel.open(segment.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.channel.truncate(0);
+        writeFully(segment.channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).flip());
+        segment.size = HEADER_SIZE;
+        segment.activeIndex = new SegmentIndex();
+        return segment;
+    }
+
+    /**
+     * Opens the last segment of the log for appending. Its records are read to rebuild its index,
+     * and a record cut short by a crash or a failed write is truncated.
+     *
+     * @param file the segment file
+     * @return the active segment
+     * @throws IOException if the segment cannot be read
+     * @throws ChangeLogException if a complete record of the segment is corrupted, the segment is left unchanged
+     */
+    static ChangeLogSegment openActive(Path file) throws IOException {
+        ChangeLogSegment segment = new ChangeLogSegment(idOf(file), file);
+        segment.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (segment.channel.size() < HEADER_SIZE) {
+            segment.channel.truncate(0);
+            writeFully(segment.channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).flip());
+            segment.size = HEADER_SIZE;
+            segment.activeIndex = new SegmentIndex();
+            return segment;
+        }
+        segment.size = segment.channel.size();
+        segment.firstAppendedAt = Files.readAttributes(file, BasicFileAttributes.class).creationTime().toMillis();
+        SegmentIndex index = new SegmentIndex();
+        long validSize;
+        try {
+            validSize = segment.scan(index);
+        } catch (ChangeLogException e) {
+            segment.close();
+            throw e;
+        }
+        if (validSize < segment.size) {
+            LogUtils.error("Truncating " + (segment.size - validSize) + " bytes of incomplete records at the end of " + file);
+            segment.channel.truncate(validSize);
+            segment.size = validSize;
+        }
+        if (segment.size == HEADER_SIZE) {
+            segment.firstAppendedAt = Long.MAX_VALUE;
+        }
+        segment.channel.position(segment.size);
+        segment.activeIndex = index;
+        return segment;
+    }
+
+    /**
+     * Opens a sealed segment and reads the summary of its index, rebuilding the index if it is missing or damaged.
+     *
+     * @param file the segment file
+     * @return the sealed segment
+     * @throws IOException if the segment cannot be read
+     */
+    static ChangeLogSegment openSealed(Path file) throws IOException {
+        ChangeLogSegment segment = new ChangeLogSegment(idOf(file), file);
+        segment.size = Files.size(file);
+        SegmentIndex index;
+        try {
+            index = segment.readIndex();
+        } catch (IOException | RuntimeException e) {
+            LogUtils.warn("Rebuilding the index of " + file + ": " + e.getMessage());
+            index = new SegmentIndex();
+            segment.scan(index);
+            segment.writeIndex(index);
+        }
+        segment.useSealedIndex(index);
+        return segment;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    Path getIndexFile() {
+        return file.resolveSibling(file.getFileName().toString().replace(FILE_SUFFIX, INDEX_SUFFIX));
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isSealed() {
+        return channel == null;
+    }
+
+    /**
+     * Returns the summary of a sealed segment.
+     *
+     * @return the summary of the changes of the segment
+     */
+    synchronized Summary summary() {
+        return summary;
+    }
+
+    /**
+     * Returns when the first change was appended to the active segment, to roll segments by age.
+     * For a segment reopened after a restart this is the time the segment file was created.
+     *
+     * @return the milliseconds since the epoch, or {@link Long#MAX_VALUE} if the segment is empty
+     */
+    synchronized long firstAppendedAt() {
+        return firstAppendedAt;
+    }
+
+    /**
+     * Writes the records of the segment, without its header, to an output stream.
+     *
+     * @param output the stream to write the records to
+     * @throws IOException if the records cannot be written
+     */
+    void copyRecordsTo(OutputStream output) throws IOException {
+        long end = size;
+        ByteBuffer mapped = map(end);
+        byte[] buffer = new byte[64 * 1024];
+        for (int position = HEADER_SIZE; position < end; position += buffer.length) {
+            int length = (int) Math.min(buffer.length, end - position);
+            mapped.get(position, buffer, 0, length);
+            output.write(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Appends changes to the active segment with a single write and adds them to its index.
+     *
+     * @param changes the changes to append
+     * @param sync whether to wait until the changes are stored on the device before returning
+     * @throws IOException if the changes cannot be written
+     */
+    synchronized void append(List<Change> changes, boolean sync) throws IOException {
+        List<byte[]> records = new ArrayList<>(changes.size());
+        int length = 0;
+        for (Change change : changes) {
+            byte[] record = toRecord(change);
+            records.add(record);
+            length += record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        records.forEach(buffer::put);
+        writeFully(channel, buffer.flip());
+        if (sync) {
+            channel.force(false);
+        }
+        if (size == HEADER_SIZE) {
+            firstAppendedAt = System.currentTimeMillis();
+        }
+        long offset = size;
+        for (int i = 0; i < changes.size(); i++) {
+            activeIndex.add((int) offset, changes.get(i));
+            offset += records.get(i).length;
+        }
+        size = offset;
+    }
+
+    /**
+     * Seals the active segment: stores it on the device, writes its index and closes it.
+     *
+     * @throws IOException if the segment or its index cannot be written
+     */
+    synchronized void seal() throws IOException {
+        if (channel != null) {
+            channel.force(true);
+            channel.close();
+            channel = null;
+            writeIndex(activeIndex);
+            useSealedIndex(activeIndex);
+            activeIndex = null;
+        }
+    }
+
+    /**
+     * Closes the file of the active segment without sealing it.
+     */
+    synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LogUtils.error("Failed to close " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the records of the segment written so far as a stream, oldest first.
+     *
+     * @return a sequential stream of the changes of the segment
+     */
+    Stream<Change> stream() {
+        long end = size;
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<Change>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private ByteBuffer mapped;
+            private int position = HEADER_SIZE;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Change> action) {
+                if (position >= end) {
+                    return false;
+                }
+                if (mapped == null) {
+                    mapped = map(end);
+                }
+                int length = mapped.getInt(position);
+                action.accept(readRecord(mapped, position));
+                position += RECORD_HEADER_SIZE + length;
+                return true;
+            }
+        }, false);
+    }
+
+    /**
+     * Reads the records of the segment in the order they were written, starting at the given offset.
+     *
+     * @param offset the offset of the first record to read
+     * @param maxChanges the number of changes {@code result} may hold at most
+     * @param result the list to add the read changes to
+     * @return the offset following the last read record
+     * @throws ChangeLogException if the segment cannot be read or a record is corrupted
+     */
+    int read(int offset, int maxChanges, List<Change> result) {
+        long end = size;
+        if (offset >= end || result.size() >= maxChanges) {
+            return offset;
+        }
+        ByteBuffer mapped = map(end);
+        int position = offset;
+        while (position < end && result.size() < maxChanges) {
+            result.add(readRecord(mapped, position));
+            position += RECORD_HEADER_SIZE + mapped.getInt(position);
+        }
+        return position;
+    }
+
+    /**
+     * Checks whether the segment can hold changes matching the query, without reading any of its records.
+     *
+     * @param query the query
+     * @return {@code false} if no change of the segment matches the query
+     */
+    synchronized boolean mayContain(ChangeQuery query) {
+        if (activeIndex != null) {
+            return activeIndex.count > 0 && overlaps(query, activeIndex.minDate, activeIndex.maxDate)
+                    && (query.companyId() == null || activeIndex.companies.containsKey(query.companyId()))
+                    && (query.changedByName() == null || activeIndex.authors.containsKey(query.changedByName()));
+        }
+        return summary.mayContain(query);
+    }
+
+    /**
+     * Adds the changes of the segment matching the query to the result, newest first,
+     * reading only the records the index points to.
+     *
+     * @param query the query
+     * @param result the list to add the matching changes to, until it holds {@code query.limit()} changes
+     * @throws ChangeLogException if the segment or its index cannot be read
+     */
+    void collect(ChangeQuery query, List<Change> result) {
+        if (result.size() >= query.limit()) {
+            return;
+        }
+        long end;
+        int[] offsets;
+        List<BlockMatch> blocks;
+        synchronized (this) {
+            end = size;
+            SegmentIndex index = index();
+            offsets = index.postingsFor(query);
+            blocks = index.blocksOverlapping(query);
+        }
+        if (blocks.isEmpty()) {
+            return;
+        }
+        ByteBuffer mapped = map(end);
+        if (offsets == null) {
+            offsets = recordOffsets(mapped, blocks, end);
+        }
+        for (int i = offsets.length - 1; i >= 0 && result.size() < query.limit(); i--) {
+            if (offsets[i] < end && inBlocks(offsets[i], blocks)) {
+                Change change = readRecord(mapped, offsets[i]);
+                if (query.matches(change)) {
+                    result.add(change);
+                }
+            }
+        }
+    }
+
+    private SegmentIndex index() {
+        if (activeIndex != null) {
+            return activeIndex;
+        }
+        SegmentIndex index = sealedIndex.get();
+        if (index == null) {
+            try {
+                index = readIndex();
+            } catch (IOException e) {
+                throw new ChangeLogException("Failed to read the index of " + file, e);
+            }
+            sealedIndex = new SoftReference<>(index);
+        }
+        return index;
+    }
+
+    private void useSealedIndex(SegmentIndex index) {
+        summary = new Summary(index.count, index.minDate, index.maxDate, Set.copyOf(index.companies.keySet()), Set.copyOf(index.authors.keySet()));
+        sealedIndex = new SoftReference<>(index);
+    }
+
+    static boolean overlaps(ChangeQuery query, long minDate, long maxDate) {
+        return (query.from() == null || maxDate >= dateKey(query.from()))
+                && (query.to() == null || minDate < dateKey(query.to()));
+    }
+
+    private static boolean inBlocks(int offset, List<BlockMatch> blocks) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.get(middle).start() <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 && blocks.get(high).matches();
+    }
+
+    private static int[] recordOffsets(ByteBuffer mapped, List<BlockMatch> blocks, long end) {
+        Offsets offsets = new Offsets();
+        for (int i = 0; i < blocks.size(); i++) {
+            BlockMatch block = blocks.get(i);
+            if (!block.matches()) {
+                continue;
+            }
+            long blockEnd = i + 1 < blocks.size() ? blocks.get(i + 1).start() : end;
+            for (int position = block.start(); position < blockEnd && position < end;
+                 position += RECORD_HEADER_SIZE + mapped.getInt(position)) {
+                offsets.add(position);
+            }
+        }
+        return offsets.toArray();
+    }
+
+    private ByteBuffer map(long end) {
+        try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            if (end < HEADER_SIZE || mapped.getInt(0) != MAGIC) {
+                throw new ChangeLogException(file + " is not a change log segment");
+            }
+            return mapped;
+        } catch (IOException e) {
+            throw new ChangeLogException("Failed to map " + file, e);
+        }
+    }
+
+    /**
+     * Reads every complete record of the segment into the index. A record running past the end of the file
+     * was cut short by a crash and ends the valid part of the segment, while a complete record that is not valid
+     * fails the scan, so that the records following it are never dropped.
+     *
+     * @return the size of the valid part of the segment
+     * @throws ChangeLogException if a complete record is corrupted
+     */
+    private long scan(SegmentIndex index) throws IOException {
+        long fileSize = Files.size(file);
+        ByteBuffer mapped = map(fileSize);
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= fileSize) {
+            int length = mapped.getInt(position);
+            if (length >= 0 && position + RECORD_HEADER_SIZE + (long) length > fileSize) {
+                break;
+            }
+            Change change;
+            try {
+                change = readRecord(mapped, position);
+            } catch (ChangeLogException e) {
+                throw new ChangeLogException(e.getMessage() + " at offset " + position + " of " + file, e);
+            }
+            index.add(position, change);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private SegmentIndex readIndex() throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(getIndexFile())))) {
+            if (input.readInt() != INDEX_MAGIC) {
+                throw new ChangeLogException(getIndexFile() + " is not a change log index");
+            }
+            SegmentIndex index = new SegmentIndex();
+            if (input.readLong() != size) {
+                throw new ChangeLogException(getIndexFile() + " does not match its segment");
+            }
+            index.count = input.readInt();
+            index.minDate = input.readLong();
+            index.maxDate = input.readLong();
+            int blockCount = input.readInt();
+            for (int i = 0; i < blockCount; i++) {
+                index.blocks.add(new Block(input.readInt(), input.readLong(), input.readLong()));
+            }
+            int companyCount = input.readInt();
+            for (int i = 0; i < companyCount; i++) {
+                index.companies.put(input.readLong(), Offsets.read(input));
+            }
+            int authorCount = input.readInt();
+            for (int i = 0; i < authorCount; i++) {
+                index.authors.put(readString(input), Offsets.read(input));
+            }
+            return index;
+        }
+    }
+
+    private void writeIndex(SegmentIndex index) throws IOException {
+        Path indexFile = getIndexFile();
+        Path temporaryFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(INDEX_MAGIC);
+            output.writeLong(size);
+            output.writeInt(index.count);
+            output.writeLong(index.minDate);
+            output.writeLong(index.maxDate);
+            output.writeInt(index.blocks.size());
+            for (Block block : index.blocks) {
+                output.writeInt(block.start());
+                output.writeLong(block.minDate());
+                output.writeLong(block.maxDate());
+            }
+            output.writeInt(index.companies.size());
+            for (Map.Entry<Long, Offsets> company : index.companies.entrySet()) {
+                output.writeLong(company.getKey());
+                company.getValue().write(output);
+            }
+            output.writeInt(index.authors.size());
+            for (Map.Entry<String, Offsets> author : index.authors.entrySet()) {
+                writeString(output, author.getKey());
+                author.getValue().write(output);
+            }
+        }
+        Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long idOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+
+    static void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the key under which a date of change is indexed.
+     *
+     * @param date the date of change, may be {@code null}
+     * @return the milliseconds since the epoch, taking the date as UTC, or {@link Long#MIN_VALUE} for no date
+     */
+    static long dateKey(LocalDateTime date) {
+        return date == null ? Long.MIN_VALUE : date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static byte[] toRecord(Change change) {
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream(256);
+            DataOutputStream output = new DataOutputStream(content);
+            output.writeByte(RECORD_VERSION);
+            writeString(output, change.getName());
+            writeString(output, change.getStartingValue());
+            writeString(output, change.getEndingValue());
+            writeString(output, change.getChangedByRole() == null ? null : change.getChangedByRole().name());
+            writeString(output, change.getChangedByName());
+            LocalDateTime dateOfChange = change.getDateOfChange();
+            output.writeBoolean(dateOfChange != null);
+            if (dateOfChange != null) {
+                output.writeLong(dateOfChange.toEpochSecond(ZoneOffset.UTC));
+                output.writeInt(dateOfChange.getNano());
+            }
+            output.writeBoolean(change.getCompanyId() != null);
+            if (change.getCompanyId() != null) {
+                output.writeLong(change.getCompanyId());
+            }
+            byte[] bytes = content.toByteArray();
+            return ByteBuffer.allocate(RECORD_HEADER_SIZE + bytes.length)
+                    .putInt(bytes.length)
+                    .putInt(checksumOf(bytes))
+                    .put(bytes)
+                    .array();
+        } catch (IOException e) {
+            throw new ChangeLogException(e);
+        }
+    }
+
+    /**
+     * Reads the record at the given offset of a segment.
+     *
+     * @param buffer the content of the segment
+     * @param offset the offset of the record
+     * @return the change stored in the record
+     * @throws ChangeLogException if the record does not match its checksum or cannot be decoded
+     */
+    static Change readRecord(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length < 0 || length > MAX_RECORD_SIZE) {
+            throw new ChangeLogException("Corrupted change log record of length " + length);
+        }
+        byte[] content = new byte[length];
+        buffer.get(offset + RECORD_HEADER_SIZE, content);
+        if (buffer.getInt(offset + Integer.BYTES) != checksumOf(content)) {
+            throw new ChangeLogException("Corrupted change log record, checksum mismatch");
+        }
+        try {
+            return fromRecord(content);
+        } catch (IOException e) {
+            throw new ChangeLogException("Corrupted change log record", e);
+        }
+    }
+
+    private static Change fromRecord(byte[] content) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+        byte version = input.readByte();
+        if (version < FIRST_RECORD_VERSION || version > RECORD_VERSION) {
+            throw new ChangeLogException("Unsupported change log record version " + version);
+        }
+        String name = readString(input);
+        String startingValue = readString(input);
+        String endingValue = readString(input);
+        String role = readString(input);
+        String changedByName = readString(input);
+        LocalDateTime dateOfChange = null;
+        if (input.readBoolean()) {
+            dateOfChange = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+        }
+        Long companyId = null;
+        if (version >= 2 && input.readBoolean()) {
+            companyId = input.readLong();
+        }
+        return new Change(name, startingValue, endingValue, role == null ? null : Role.valueOf(role), changedByName, dateOfChange, companyId);
+    }
+
+    private static int checksumOf(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Index of the records of a segment.
+     */
+    private static final class SegmentIndex {
+        private int count;
+        private long minDate = Long.MAX_VALUE;
+        private long maxDate = Long.MIN_VALUE;
+        private final List<Block> blocks = new ArrayList<>();
+        private final Map<Long, Offsets> companies = new HashMap<>();
+        private final Map<String, Offsets> authors = new HashMap<>();
+
+        private void add(int offset, Change change) {
+            long date = dateKey(change.getDateOfChange());
+            if (count % BLOCK_SIZE == 0) {
+                blocks.add(new Block(offset, date, date));
+            } else {
+                Block block = blocks.getLast();
+                blocks.set(blocks.size() - 1, new Block(block.start(), Math.min(block.minDate(), date), Math.max(block.maxDate(), date)));
+            }
+            count++;
+            minDate = Math.min(minDate, date);
+            maxDate = Math.max(maxDate, date);
+            if (change.getCompanyId() != null) {
+                companies.computeIfAbsent(change.getCompanyId(), key -> new Offsets()).add(offset);
+            }
+            if (change.getChangedByName() != null) {
+                authors.computeIfAbsent(change.getChangedByName(), key -> new Offsets()).add(offset);
+            }
+        }
+
+        /**
+         * Returns the offsets of the records of the company and author of the query.
+         *
+         * @return the ascending offsets, or {@code null} if the query is not limited to a company or an author
+         */
+        private int[] postingsFor(ChangeQuery query) {
+            int[] byCompany = query.companyId() == null ? null : toArray(companies.get(query.companyId()));
+            int[] byAuthor = query.changedByName() == null ? null : toArray(authors.get(query.changedByName()));
+            if (byCompany == null || byAuthor == null) {
+                return byCompany != null ? byCompany : byAuthor;
+            }
+            return Arrays.stream(byCompany).filter(offset -> Arrays.binarySearch(byAuthor, offset) >= 0).toArray();
+        }
+
+        /**
+         * Matches every block against the date range of the query.
+         *
+         * @return one match per block, or an empty list if no block overlaps the range
+         */
+        private List<BlockMatch> blocksOverlapping(ChangeQuery query) {
+            List<BlockMatch> matches = new ArrayList<>(blocks.size());
+            boolean any = false;
+            for (Block block : blocks) {
+                boolean overlapping = overlaps(query, block.minDate(), block.maxDate());
+                any |= overlapping;
+                matches.add(new BlockMatch(block.start(), overlapping));
+            }
+            return any ? matches : List.of();
+        }
+
+        private static int[] toArray(Offsets offsets) {
+            return offsets == null ? new int[0] : offsets.toArray();
+        }
+    }
+
+    /**
+     * Growable list of record offsets in ascending order.
+     */
+    private static final class Offsets {
+        private int[] values = new int[4];
+        private int count;
+
+        private void add(int offset) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = offset;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, count);
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                output.writeInt(values[i]);
+            }
+        }
+
+        private static Offsets read(DataInputStream input) throws IOException {
+            Offsets offsets = new Offsets();
+            int count = input.readInt();
+            offsets.values = new int[Math.max(4, count)];
+            for (int i = 0; i < count; i++) {
+                offsets.values[i] = input.readInt();
+            }
+            offsets.count = count;
+            return offsets;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.model.Change;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria for reading changes from the {@link ChangeLog}, answered newest change first.
+ * Every criterion left {@code null} matches all changes. Queries are built from {@link #latest(int)}
+ * and narrowed with the {@code for}, {@code by} and {@code between} methods, e.g.
+ * {@code ChangeQuery.latest(200).forCompany(companyId)}.
+ *
+ * @param companyId the company the changes were made in
+ * @param changedByName the name of the employee who made the changes
+ * @param from the earliest date of change, inclusive
+ * @param to the latest date of change, exclusive
+ * @param limit the maximum number of changes returned
+ */
+public record ChangeQuery(Long companyId, String changedByName, LocalDateTime from, LocalDateTime to, int limit) {
+
+    public static ChangeQuery latest(int limit) {
+        return new ChangeQuery(null, null, null, null, limit);
+    }
+
+    public ChangeQuery forCompany(Long companyId) {
+        return new ChangeQuery(companyId, changedByName, from, to, limit);
+    }
+
+    public ChangeQuery by(String changedByName) {
+        return new ChangeQuery(companyId, changedByName, from, to, limit);
+    }
+
+    public ChangeQuery between(LocalDateTime from, LocalDateTime to) {
+        return new ChangeQuery(companyId, changedByName, from, to, limit);
+    }
+
+    /**
+     * Checks whether a change fulfills every criterion of the query.
+     *
+     * @param change the change to check
+     * @return {@code true} if the change matches
+     */
+    public boolean matches(Change change) {
+        return (companyId == null || companyId.equals(change.getCompanyId()))
+                && (changedByName == null || changedByName.equals(change.getChangedByName()))
+                && (from == null || (change.getDateOfChange() != null && !change.getDateOfChange().isBefore(from)))
+                && (to == null || (change.getDateOfChange() != null && change.getDateOfChange().isBefore(to)));
+    }
+}
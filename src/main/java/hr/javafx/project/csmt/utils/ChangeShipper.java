@@ -0,0 +1,253 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.exception.DatabaseException;
+import hr.javafx.project.csmt.model.Change;
+import hr.javafx.project.csmt.thread.ChangeShippingThread;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ships the changes of the local {@link ChangeLog} into the CHANGE table, so they can be queried with SQL
+ * together with the other tables and across workstations. Saving a change stays a local append:
+ * a background thread reads the changes written since the last shipment and inserts them in batches of
+ * {@code changeShipper.batchSize} changes (500 by default) every {@code changeShipper.intervalSeconds} seconds
+ * (5 by default, 0 disables shipping).
+ * The local change log is the spool: the position up to which the changes were shipped is stored in the
+ * CHANGE_SHIPMENT table in the same transaction as the inserted rows, and in {@value #CHECKPOINT_FILE_NAME} once
+ * committed, and the segments from that position on are kept out of compaction. While the database is unavailable
+ * the changes stay in the log and are shipped once it is back, and no change is inserted twice.
+ * The rows of a workstation are marked with its {@code changeShipper.source}, its host name by default.
+ * The CHANGE and CHANGE_SHIPMENT tables are created on first use if they do not exist yet, so shipping also works
+ * against a database whose schema is not migrated by the application.
+ *
+ */
+
+public class ChangeShipper {
+    public static final String CHECKPOINT_FILE_NAME = ChangeLog.LOG_DIRECTORY + "/shipped.pos";
+    private static final String INSERT_CHANGE = "INSERT INTO CHANGE(SOURCE, NAME, STARTING_VALUE, ENDING_VALUE, " +
+            "CHANGED_BY_ROLE, CHANGED_BY_NAME, DATE_OF_CHANGE, COMPANY_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_VALUE_LENGTH = 4000;
+    private static final String CREATE_CHANGE_TABLE = "CREATE TABLE IF NOT EXISTS CHANGE (" +
+            "ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, SOURCE VARCHAR(255) NOT NULL, NAME VARCHAR(255), " +
+            "STARTING_VALUE VARCHAR(4000), ENDING_VALUE VARCHAR(4000), CHANGED_BY_ROLE VARCHAR(50), " +
+            "CHANGED_BY_NAME VARCHAR(255), DATE_OF_CHANGE TIMESTAMP, COMPANY_ID BIGINT)";
+    private static final String[] CREATE_CHANGE_INDEXES = {
+            "CREATE INDEX IF NOT EXISTS CHANGE_COMPANY_DATE_IDX ON CHANGE(COMPANY_ID, DATE_OF_CHANGE)",
+            "CREATE INDEX IF NOT EXISTS CHANGE_DATE_IDX ON CHANGE(DATE_OF_CHANGE)"};
+    private static final String CREATE_SHIPMENT_TABLE = "CREATE TABLE IF NOT EXISTS CHANGE_SHIPMENT (" +
+            "SOURCE VARCHAR(255) PRIMARY KEY, SEGMENT_ID BIGINT NOT NULL, RECORD_OFFSET INT NOT NULL)";
+
+    private static final Object SHIPPING_LOCK = new Object();
+
+    private static ScheduledExecutorService scheduler;
+    private static String cachedSource;
+    private static ChangeLog.Position shipped;
+    private static boolean shippedPositionLoaded;
+    private static boolean changeTablesCreated;
+
+    /**
+     * Ships every change written to the change log since the last shipment, one batch per transaction.
+     *
+     * @return the number of shipped changes
+     * @throws DatabaseException if the database is unavailable, the changes already shipped stay committed
+     */
+    public int shipPendingChanges() {
+        int batchSize = (int) Math.max(1, Database.getLongProperty("changeShipper.batchSize", 500));
+        String source = getSource();
+        int shippedChanges = 0;
+        synchronized (SHIPPING_LOCK) {
+            Database database = new Database();
+            try(Connection connection = database.getConnection()) {
+                if (connection == null) {
+                    throw new DatabaseException("Unable to obtain a database connection");
+                }
+                ensureChangeTables(connection);
+                ChangeLog.Position from = loadShippedPosition(connection, source);
+                connection.setAutoCommit(false);
+                while (true) {
+                    ChangeLog.Batch batch = ChangeLog.read(from, batchSize);
+                    if (!batch.end().isAfter(from)) {
+                        break;
+                    }
+                    insertChanges(connection, source, batch);
+                    connection.commit();
+                    from = batch.end();
+                    updateShippedPosition(from);
+                    shippedChanges += batch.changes().size();
+                }
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+        }
+        return shippedChanges;
+    }
+
+    /**
+     * Starts shipping changes in the background, once right away and then every
+     * {@code changeShipper.intervalSeconds} seconds. Until then the changes not shipped yet are kept out of compaction.
+     */
+    public static synchronized void startScheduledShipping() {
+        long intervalSeconds = Database.getLongProperty("changeShipper.intervalSeconds", 5);
+        if (scheduler == null && intervalSeconds > 0) {
+            synchronized (SHIPPING_LOCK) {
+                if (shipped == null) {
+                    updateShippedPosition(readCheckpoint());
+                }
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "change-shipper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(new ChangeShippingThread(), 0, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the background shipping started with {@link #startScheduledShipping()}.
+     * The changes not shipped yet are shipped after the next start.
+     */
+    public static synchronized void stopScheduledShipping() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Returns the position up to which this workstation has shipped its changes, reading it from the database on first use.
+     * The database is ahead of the local checkpoint when the application stopped between a commit and the checkpoint.
+     */
+    private static ChangeLog.Position loadShippedPosition(Connection connection, String source) throws SQLException {
+        if (shipped == null) {
+            updateShippedPosition(readCheckpoint());
+        }
+        if (!shippedPositionLoaded) {
+            try(PreparedStatement select = connection.prepareStatement("SELECT SEGMENT_ID, RECORD_OFFSET FROM CHANGE_SHIPMENT WHERE SOURCE = ?")) {
+                select.setString(1, source);
+                try(ResultSet resultSet = select.executeQuery()) {
+                    if (resultSet.next()) {
+                        ChangeLog.Position stored = new ChangeLog.Position(resultSet.getLong("SEGMENT_ID"), resultSet.getInt("RECORD_OFFSET"));
+                        if (stored.isAfter(shipped)) {
+                            updateShippedPosition(stored);
+                        }
+                    }
+                }
+            }
+            shippedPositionLoaded = true;
+        }
+        return shipped;
+    }
+
+    private static void ensureChangeTables(Connection connection) throws SQLException {
+        if (!changeTablesCreated) {
+            try(Statement statement = connection.createStatement()) {
+                statement.executeUpdate(CREATE_CHANGE_TABLE);
+                for (String createIndex : CREATE_CHANGE_INDEXES) {
+                    statement.executeUpdate(createIndex);
+                }
+                statement.executeUpdate(CREATE_SHIPMENT_TABLE);
+            }
+            changeTablesCreated = true;
+        }
+    }
+
+    private static void insertChanges(Connection connection, String source, ChangeLog.Batch batch) throws SQLException {
+        try(PreparedStatement insert = connection.prepareStatement(INSERT_CHANGE)) {
+            for (Change change : batch.changes()) {
+                insert.setString(1, source);
+                insert.setString(2, truncate(change.getName(), MAX_NAME_LENGTH));
+                insert.setString(3, truncate(change.getStartingValue(), MAX_VALUE_LENGTH));
+                insert.setString(4, truncate(change.getEndingValue(), MAX_VALUE_LENGTH));
+                insert.setString(5, change.getChangedByRole() == null ? null : change.getChangedByRole().name());
+                insert.setString(6, truncate(change.getChangedByName(), MAX_NAME_LENGTH));
+                insert.setTimestamp(7, change.getDateOfChange() == null ? null : Timestamp.valueOf(change.getDateOfChange()));
+                if (change.getCompanyId() == null) {
+                    insert.setNull(8, Types.BIGINT);
+                } else {
+                    insert.setLong(8, change.getCompanyId());
+                }
+                insert.addBatch();
+            }
+            if (!batch.changes().isEmpty()) {
+                insert.executeBatch();
+            }
+        }
+        try(PreparedStatement update = connection.prepareStatement("UPDATE CHANGE_SHIPMENT SET SEGMENT_ID = ?, RECORD_OFFSET = ? WHERE SOURCE = ?")) {
+            update.setLong(1, batch.end().segmentId());
+            update.setInt(2, batch.end().offset());
+            update.setString(3, source);
+            if (update.executeUpdate() == 0) {
+                try(PreparedStatement insert = connection.prepareStatement("INSERT INTO CHANGE_SHIPMENT(SOURCE, SEGMENT_ID, RECORD_OFFSET) VALUES (?, ?, ?)")) {
+                    insert.setString(1, source);
+                    insert.setLong(2, batch.end().segmentId());
+                    insert.setInt(3, batch.end().offset());
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private static void updateShippedPosition(ChangeLog.Position position) {
+        if (shipped != null && !position.equals(shipped)) {
+            writeCheckpoint(position);
+        }
+        shipped = position;
+        ChangeLog.retainFrom(position.segmentId());
+    }
+
+    private static ChangeLog.Position readCheckpoint() {
+        Path checkpoint = Path.of(CHECKPOINT_FILE_NAME);
+        if (Files.exists(checkpoint)) {
+            try {
+                String[] fields = Files.readString(checkpoint).trim().split(" ");
+                return new ChangeLog.Position(Long.parseLong(fields[0]), Integer.parseInt(fields[1]));
+            } catch (IOException | RuntimeException e) {
+                LogUtils.error("Invalid change shipment checkpoint " + checkpoint + ", shipping from the start of the change log: " + e.getMessage());
+            }
+        }
+        return ChangeLog.Position.start();
+    }
+
+    private static void writeCheckpoint(ChangeLog.Position position) {
+        Path checkpoint = Path.of(CHECKPOINT_FILE_NAME);
+        Path temporaryFile = Path.of(CHECKPOINT_FILE_NAME + ".tmp");
+        try {
+            Files.createDirectories(checkpoint.getParent());
+            Files.writeString(temporaryFile, position.segmentId() + " " + position.offset());
+            Files.move(temporaryFile, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LogUtils.error("Failed to write the change shipment checkpoint " + checkpoint + ": " + e.getMessage());
+        }
+    }
+
+    private static synchronized String getSource() {
+        if (cachedSource == null) {
+            String configured = Database.getProperties().getProperty("changeShipper.source");
+            if (configured != null && !configured.isBlank()) {
+                cachedSource = configured.trim();
+            } else {
+                try {
+                    cachedSource = InetAddress.getLocalHost().getHostName();
+                } catch (UnknownHostException e) {
+                    cachedSource = System.getProperty("user.name", "unknown");
+                }
+            }
+        }
+        return cachedSource;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,391 @@
+package hr.javafx.project.csmt.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of reusable JDBC connections used by {@link Database}.
+ * Connections are created lazily up to a maximum size, validated before being handed out
+ * after they have been idle for a while, and evicted by a background thread once they
+ * stay unused for longer than the idle timeout, never shrinking the pool below its minimum size.
+ * Callers receive a proxy whose {@code close()} returns the connection to the pool
+ * instead of closing the physical connection.
+ * Every physical connection keeps a {@link StatementCache} of up to {@code statementCacheSize}
+ * prepared statements, so SQL prepared again on a later borrow skips parsing and planning.
+ * Tables written through a pooled connection are reported to the {@link QueryCache} when the writing statement
+ * is prepared, and again when the connection commits, rolls back or is returned.
+ * Every statement and connection acquisition is timed and reported to {@link QueryMetrics}.
+ *
+ */
+
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final Deque<IdleConnection> idleConnections = new ArrayDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    private record IdleConnection(Connection connection, long idleSinceMillis) {}
+
+    /**
+     * Creates a new pool and fills it up to its minimum size.
+     *
+     * @param url the JDBC url of the database
+     * @param user the database user
+     * @param password the password of the database user
+     * @param minSize the number of connections kept open even when unused
+     * @param maxSize the maximum number of connections handed out at the same time
+     * @param acquireTimeoutMillis how long a caller waits for a free connection before failing
+     * @param idleTimeoutMillis how long an unused connection stays open before being evicted
+     * @param statementCacheSize the number of prepared statements cached per connection, 0 disables the cache
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, int statementCacheSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.minSize = Math.clamp(minSize, 0, this.maxSize);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIntervalMillis = Math.min(5000L, idleTimeoutMillis);
+        this.validationTimeoutSeconds = 2;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.permits = new Semaphore(this.maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionPeriod = Math.max(1000L, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+        fillToMinimum();
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no idle connection is available
+     * and the pool has not reached its maximum size.
+     *
+     * @return a pooled connection which must be closed to return it to the pool
+     * @throws SQLTimeoutException if no connection becomes available within the acquire timeout
+     * @throws SQLException if the pool is closed or a new connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection pool is closed");
+        }
+        ActionScope.recordConnection();
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        Connection physical;
+        try {
+            physical = takeIdleConnection();
+            if (physical == null) {
+                physical = openConnection();
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        long waited = System.nanoTime() - start;
+        acquiredCount.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        QueryMetrics.recordAcquire(waited);
+        activeCount.incrementAndGet();
+        return wrap(physical);
+    }
+
+    /**
+     * Returns a snapshot of the current pool usage, acquire wait times and statement cache hit ratio.
+     *
+     * @return the current {@link PoolStatistics}
+     */
+    public PoolStatistics getStatistics() {
+        int idle;
+        synchronized (idleConnections) {
+            idle = idleConnections.size();
+        }
+        long acquired = acquiredCount.sum();
+        double averageWaitMillis = acquired == 0 ? 0 : totalWaitNanos.sum() / (double) acquired / 1_000_000;
+        return new PoolStatistics(activeCount.get(), idle, minSize, maxSize, acquired, timeoutCount.sum(),
+                averageWaitMillis, maxWaitNanos.get() / 1_000_000.0, statementCacheHits.sum(), statementCacheMisses.sum());
+    }
+
+    /**
+     * Closes every idle connection and stops the eviction thread.
+     * Connections that are still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            evictor.shutdownNow();
+            synchronized (idleConnections) {
+                idleConnections.forEach(idle -> closeQuietly(idle.connection()));
+                idleConnections.clear();
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    private Connection takeIdleConnection() {
+        while (true) {
+            IdleConnection idle;
+            synchronized (idleConnections) {
+                idle = idleConnections.pollFirst();
+            }
+            if (idle == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - idle.idleSinceMillis() < validationIntervalMillis || isValid(idle.connection())) {
+                return idle.connection();
+            }
+            closeQuietly(idle.connection());
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection physical) {
+        activeCount.decrementAndGet();
+        try {
+            if (closed.get() || physical.isClosed()) {
+                closeQuietly(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            synchronized (idleConnections) {
+                idleConnections.addFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            }
+        } catch (SQLException e) {
+            LogUtils.error("Discarding broken pooled connection: " + e.getMessage());
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        synchronized (idleConnections) {
+            Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+            while (iterator.hasNext() && idleConnections.size() + activeCount.get() > minSize) {
+                IdleConnection idle = iterator.next();
+                if (now - idle.idleSinceMillis() >= idleTimeoutMillis) {
+                    iterator.remove();
+                    closeQuietly(idle.connection());
+                }
+            }
+        }
+        fillToMinimum();
+    }
+
+    private void fillToMinimum() {
+        while (!closed.get()) {
+            synchronized (idleConnections) {
+                if (idleConnections.size() + activeCount.get() >= minSize) {
+                    return;
+                }
+            }
+            try {
+                Connection connection = openConnection();
+                synchronized (idleConnections) {
+                    idleConnections.addLast(new IdleConnection(connection, System.currentTimeMillis()));
+                }
+            } catch (SQLException e) {
+                LogUtils.error("Failed to open pooled connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        StatementCache statementCache = statementCaches.remove(connection);
+        if (statementCache != null) {
+            statementCache.close();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LogUtils.error(e.getMessage());
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnectionHandler(physical));
+    }
+
+    private StatementCache statementCache(Connection physical) {
+        return statementCaches.computeIfAbsent(physical,
+                connection -> new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses));
+    }
+
+    /**
+     * Invocation handler behind every borrowed connection.
+     * Intercepts {@code close()} to hand the physical connection back to the pool,
+     * serves {@code prepareStatement(...)} from the connection's {@link StatementCache},
+     * invalidates the {@link QueryCache} results of the tables the connection writes to,
+     * instruments every created statement with an {@link InstrumentedStatement} handler
+     * and rejects any further use of the proxy after it has been returned.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final Set<String> writtenTables = new HashSet<>();
+        private boolean returned;
+
+        private PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                        invalidateWrittenTables();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + physical;
+                }
+                case "prepareStatement" -> {
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    String writtenTable = QueryCache.getWrittenTable((String) args[0]);
+                    if (writtenTable != null && writtenTables.add(writtenTable)) {
+                        QueryCache.invalidate(writtenTable);
+                    }
+                    PreparedStatement statement;
+                    if (statementCacheSize == 0) {
+                        statement = (PreparedStatement) invokePhysical(method, args);
+                    } else {
+                        statement = statementCache(physical).prepare(Arrays.deepToString(args), (Connection) proxy,
+                                () -> (PreparedStatement) invokePhysical(method, args));
+                    }
+                    return InstrumentedStatement.wrap(statement, (String) args[0], PreparedStatement.class);
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        Object result = method.invoke(physical, args);
+                        Class<? extends Statement> statementType = InstrumentedStatement.statementType(method);
+                        if (statementType != null) {
+                            return wrapStatement(result, args, statementType);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (method.getName().equals("commit") || method.getName().equals("rollback")) {
+                            invalidateWrittenTables();
+                        }
+                    }
+                }
+            }
+        }
+
+        private <T extends Statement> T wrapStatement(Object statement, Object[] args, Class<T> type) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            return InstrumentedStatement.wrap(type.cast(statement), sql, type);
+        }
+
+        private void invalidateWrittenTables() {
+            writtenTables.forEach(QueryCache::invalidate);
+            writtenTables.clear();
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws SQLException {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw new SQLException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new SQLException(e);
+            }
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package hr.javafx.project.csmt.utils;
+import hr.javafx.project.csmt.enums.Role;
 import hr.javafx.project.csmt.enums.TaskCompletion;
 import hr.javafx.project.csmt.exception.DatabaseEmptyException;
 import hr.javafx.project.csmt.exception.DatabaseException;
 import hr.javafx.project.csmt.exception.MessageException;
 import hr.javafx.project.csmt.model.*;
 import hr.javafx.project.csmt.repository.CompanyDatabaseRepository;
+import hr.javafx.project.csmt.repository.EntitySession;
+import hr.javafx.project.csmt.repository.Page;
+import hr.javafx.project.csmt.repository.PageCursor;
+import hr.javafx.project.csmt.repository.SecondLevelCache;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
@@ -13,35 +18,39 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.util.*;
 
-//161 linija bez javadoca
 
 /**
  * Utility class for database operations and connection management.
- * Provides methods for establishing database connections , fetching tasks and messages
- * associated with specific companies or entities, and retrieving next available entity IDs.
+ * Provides pooled database connections, methods for fetching tasks and messages
+ * associated with specific companies or entities, and saving new messages.
  * This class is intended to be used as a shared data access layer across the application.
  *
  */
 public class Database {
+    public static final String PROPERTIES_FILE_NAME = "dat/databaseProperties.txt";
+    public static final String EMBEDDED_URL = "jdbc:h2:./dat/csmt";
+    public static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    private static final String MESSAGE_INSERT_COLUMNS = "NAME, DESCRIPTION, TASK_ID, PROJECT_MANAGER_ID, COMPANY_ID";
+    private static final String TASK_COLUMNS = "ID, NAME, DESCRIPTION, DATE_DUE, COMPLETION, CREATED_BY, COMPANY_ID";
+    private static final String SELECT_MESSAGE = "SELECT M.ID, M.NAME, M.DESCRIPTION, M.TASK_ID, M.PROJECT_MANAGER_ID, " +
+            "E.NAME AS PROJECT_MANAGER_NAME, E.ROLE AS PROJECT_MANAGER_ROLE, " +
+            "T.NAME AS TASK_NAME, T.DESCRIPTION AS TASK_DESCRIPTION, T.DATE_DUE AS TASK_DATE_DUE, " +
+            "T.COMPLETION AS TASK_COMPLETION, T.CREATED_BY AS TASK_CREATED_BY, T.COMPANY_ID AS TASK_COMPANY_ID " +
+            "FROM MESSAGE M LEFT JOIN EMPLOYEE E ON E.ID = M.PROJECT_MANAGER_ID LEFT JOIN TASK T ON T.ID = M.TASK_ID";
+
+    private static final Object POOL_LOCK = new Object();
+
+    private static ConnectionPool connectionPool;
+
     /**
-     * Establishes a database connection using credentials loaded from the properties file.
+     * Borrows a connection from the shared {@link ConnectionPool}.
+     * Closing the returned connection gives it back to the pool.
      *
      * @return a Connection instance or {@code null} if the connection fails
      */
     public Connection getConnection() {
-        Properties properties = new Properties();
-        try(BufferedReader br = new BufferedReader(new FileReader("dat/databaseProperties.txt"))) {
-            properties.load(br);
-        }catch (IOException e) {
-            LogUtils.error(e.getMessage());
-        }
-
-        String url = properties.getProperty("url");
-        String user = properties.getProperty("user");
-        String password = properties.getProperty("pass");
-
         try  {
-            return DriverManager.getConnection(url, user, password);
+            return getConnectionPool().getConnection();
         }
         catch (SQLException e){
             LogUtils.error(e.getMessage());
@@ -51,71 +60,193 @@ public class Database {
     }
 
     /**
-     * Retrieves the next available employee ID by scanning the EMPLOYEE table.
+     * Returns the current usage statistics of the shared connection pool.
      *
-     * @return the next sequential employee ID
-     * @throws DatabaseException on SQL failure
+     * @return a {@link PoolStatistics} snapshot
      */
-    public Long getEmployeeIdFromDatabase(){
-        long id = 0L;
-        try(Connection connection = getConnection()){
-            try (Statement statement = connection.createStatement()) {
-                ResultSet resultSet = statement.executeQuery("SELECT ID FROM EMPLOYEE");
-                while(resultSet.next()){
-                    id = resultSet.getLong("ID");
+    public static PoolStatistics getPoolStatistics() {
+        return getConnectionPool().getStatistics();
+    }
+
+    /**
+     * Logs the final statistics of the shared connection pool, including the statement cache hit ratio,
+     * of the {@link SecondLevelCache} regions and of the {@link QueryCache}, the connection acquire times
+     * and the statements with the highest total time recorded by {@link QueryMetrics}, and closes the pool and all of its idle connections.
+     * The next call to {@link #getConnection()} creates a new pool.
+     */
+    public static void shutdown() {
+        synchronized (POOL_LOCK) {
+            if (connectionPool != null) {
+                LogUtils.info(connectionPool.getStatistics().toString());
+                SecondLevelCache.getStatistics().forEach(statistics -> LogUtils.info(statistics.toString()));
+                LogUtils.info(QueryCache.getStatistics());
+                QueryMetrics.logSummary(20);
+                connectionPool.close();
+                connectionPool = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the database properties, loading them from the properties file on first use.
+     * Besides the connection credentials ({@code url}, {@code user}, {@code pass}) the file
+     * may contain the pool settings {@code pool.minSize}, {@code pool.maxSize},
+     * {@code pool.acquireTimeoutMillis}, {@code pool.idleTimeoutMillis} and {@code pool.statementCacheSize},
+     * and the {@link TaskArchiver} settings {@code archive.completedTaskAgeDays} and {@code archive.intervalHours}.
+     * With {@code db.mode=embedded} the application runs on an embedded H2 database stored in
+     * {@value #EMBEDDED_URL}, used whenever no {@code url} is given, and the schema is migrated on startup.
+     * Other databases are migrated only with {@code schema.migrate=true}.
+     * The properties are read without holding the lock of this class, so the static initializers reading
+     * settings never wait for a thread that creates the connection pool.
+     *
+     * @return the loaded properties
+     */
+    public static Properties getProperties() {
+        return PropertiesHolder.PROPERTIES;
+    }
+
+    /**
+     * Reads a numeric setting from the database properties.
+     *
+     * @param key the name of the property
+     * @param defaultValue the value used when the property is missing or invalid
+     * @return the configured value or the default one
+     */
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = getProperties().getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LogUtils.error("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns a comma separated list of the given number of bind placeholders.
+     *
+     * @param count the number of placeholders
+     * @return a string such as {@code ?,?,?}
+     */
+    public static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Splits the given identifiers into distinct chunks small enough
+     * to be bound into a single {@code IN (...)} list.
+     *
+     * @param ids the identifiers to split
+     * @return the chunks of identifiers, empty if there are no identifiers
+     */
+    public static List<List<Long>> inClauseChunks(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+            chunks.add(distinct.subList(i, Math.min(distinct.size(), i + IN_CLAUSE_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private static ConnectionPool getConnectionPool() {
+        synchronized (POOL_LOCK) {
+            if (connectionPool == null) {
+                Properties props = getProperties();
+                boolean embedded = "embedded".equalsIgnoreCase(props.getProperty("db.mode", "").trim());
+                ConnectionPool pool = new ConnectionPool(
+                        props.getProperty("url", embedded ? EMBEDDED_URL : null),
+                        props.getProperty("user", embedded ? "sa" : null),
+                        props.getProperty("pass", embedded ? "" : null),
+                        (int) getLongProperty("pool.minSize", 1),
+                        (int) getLongProperty("pool.maxSize", 10),
+                        getLongProperty("pool.acquireTimeoutMillis", 10_000),
+                        getLongProperty("pool.idleTimeoutMillis", 300_000),
+                        (int) getLongProperty("pool.statementCacheSize", 50));
+                if (Boolean.parseBoolean(props.getProperty("schema.migrate", String.valueOf(embedded)).trim())) {
+                    migrateSchema(pool);
                 }
+                connectionPool = pool;
             }
-        } catch (SQLException e) {
-            throw new DatabaseException(e);
+            return connectionPool;
+        }
+    }
+
+    private static void migrateSchema(ConnectionPool pool) {
+        try(Connection connection = pool.getConnection()) {
+            new SchemaMigrator().migrate(connection);
+        } catch (SQLException | DatabaseException e) {
+            pool.close();
+            throw new DatabaseException("Unable to migrate the database schema", e);
         }
-        return id + 1;
     }
 
     /**
-     * Retrieves the next available message ID by scanning the MESSAGE table.
+     * Inserts a new message into the MESSAGE table using an SQL INSERT prepared statement
+     * and sets the ID assigned by the {@link IdAllocator} on the message.
+     * Messages without a task are stored with a {@code TASK_ID} of -1.
      *
-     * @return the next sequential message ID
+     * @param message the message to be persisted
+     * @return the ID of the saved message
      * @throws DatabaseException on SQL failure
      */
-    public Long getMessageIdFromDatabase(){
-        long id = 0L;
-        try(Connection connection = getConnection()){
-            try (Statement statement = connection.createStatement()) {
-                ResultSet resultSet = statement.executeQuery("SELECT ID FROM MESSAGE");
-                while(resultSet.next()){
-                    id = resultSet.getLong("ID");
-                }
+    public Long saveMessage(Message message){
+        IdAllocator idAllocator = IdAllocator.getInstance();
+        try(Connection connection = getConnection()) {
+            Long id = idAllocator.nextId(connection, "MESSAGE");
+            try(PreparedStatement preparedStatement = idAllocator.prepareInsert(connection, "MESSAGE", MESSAGE_INSERT_COLUMNS, id)) {
+                bindMessage(preparedStatement, message);
+                preparedStatement.executeUpdate();
+                message.setId(idAllocator.getAssignedId(preparedStatement, id));
             }
         } catch (SQLException e) {
             throw new DatabaseException(e);
         }
-        return id + 1;
+        return message.getId();
     }
 
     /**
-     * Retrieves the next available company ID by scanning the COMPANY table.
+     * Inserts all given messages with JDBC batches in a single transaction
+     * and sets the IDs assigned by the {@link IdAllocator} on the messages.
      *
-     * @return the next sequential company ID
+     * @param messages the messages to be persisted
+     * @return the IDs of the saved messages, in iteration order
      * @throws DatabaseException on SQL failure
      */
-    public Long getCompanyIdFromDatabase(){
-        long id = 0L;
-        try(Connection connection = getConnection()){
-            try (Statement statement = connection.createStatement()) {
-                ResultSet resultSet = statement.executeQuery("SELECT ID FROM COMPANY");
-                while(resultSet.next()){
-                    id = resultSet.getLong("ID");
-                }
+    public List<Long> saveMessages(Collection<Message> messages){
+        List<Message> rows = List.copyOf(messages);
+        try(Connection connection = getConnection()) {
+            List<Long> ids = IdAllocator.getInstance().insertBatch(connection, "MESSAGE", MESSAGE_INSERT_COLUMNS, rows, Database::bindMessage);
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).setId(ids.get(i));
             }
+            return ids;
         } catch (SQLException e) {
             throw new DatabaseException(e);
         }
-        return id + 1;
+    }
+
+    private static void bindMessage(PreparedStatement preparedStatement, Message message) throws SQLException {
+        preparedStatement.setString(1, message.getTitle());
+        preparedStatement.setString(2, message.getContent());
+        if(message.getPair().getSecond() != null){
+            preparedStatement.setLong(3, message.getPair().getSecond().getId());
+        }
+        else{
+            preparedStatement.setLong(3, -1);
+        }
+        preparedStatement.setLong(4, message.getPair().getFirst().getId());
+        preparedStatement.setLong(5, message.getPair().getFirst().getEmployer().getId());
     }
 
     /**
      * Retrieves a filtered list of uncompleted tasks from the TASK table
      * for a given field (e.g., COMPANY_ID or EMPLOYEE_ID) and identifier.
+     * Completed tasks are excluded by the query itself, so they are never transferred.
+     * The rows are served from the {@link QueryCache} until the TASK table changes,
+     * and every call builds its own tasks from them.
      *
      * @param blankId the column to match (e.g., "COMPANY_ID")
      * @param id the corresponding value to search for
@@ -123,88 +254,257 @@ public class Database {
      * @throws DatabaseEmptyException if no tasks are found
      */
     public List<Task> getTasksListFromDatabase(String blankId, Long id) throws DatabaseEmptyException {
-        Database database = new Database();
-        List<Task> tasks = new ArrayList<>();
-        try(Connection connection = database.getConnection()) {
-            String sql = "SELECT ID, NAME, DESCRIPTION, DATE_DUE, COMPLETION, CREATED_BY FROM TASK WHERE " + blankId +
-                    " = ?";
-            try(PreparedStatement statement = connection.prepareStatement(sql)){
-
-                statement.setLong(1, id);
-                ResultSet resultSet = statement.executeQuery();
-                while(resultSet.next()) {
-                    Long taskId = resultSet.getLong("ID");
-                    String taskName = resultSet.getString("NAME");
-                    String taskDescription = resultSet.getString("DESCRIPTION");
-                    LocalDate taskDateDue = LocalDate.parse(resultSet.getDate("DATE_DUE").toString());
-                    TaskCompletion taskCompletion = TaskCompletion.valueOf(resultSet.getString("COMPLETION"));
-                    String createdBy = resultSet.getString("CREATED_BY");
-                    Task task = new Task(taskId, taskName, taskDescription, taskDateDue, taskCompletion, createdBy, id);
-                    tasks.add(task);
+        String sql = "SELECT " + TASK_COLUMNS + " FROM TASK WHERE " + blankId + " = ? AND COMPLETION <> ?";
+        List<TaskRow> rows = QueryCache.getOrLoad(sql, List.of(id, TaskCompletion.COMPLETED), () -> {
+            List<TaskRow> loaded = new ArrayList<>();
+            try(Connection connection = getConnection()) {
+                try(PreparedStatement statement = connection.prepareStatement(sql)){
+
+                    statement.setLong(1, id);
+                    statement.setString(2, TaskCompletion.COMPLETED.toString());
+                    ResultSet resultSet = statement.executeQuery();
+                    while(resultSet.next()) {
+                        loaded.add(TaskRow.read(resultSet, ""));
+                    }
                 }
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+            return List.copyOf(loaded);
+        });
+        List<Task> tasks = new ArrayList<>(rows.size());
+        try(EntitySession session = EntitySession.join()) {
+            for (TaskRow row : rows) {
+                tasks.add(row.toTask(session));
             }
-        } catch (SQLException e) {
-            throw new DatabaseException(e);
         }
-        tasks = tasks.stream()
-                .filter(t->!t.getCompletion().equals(TaskCompletion.COMPLETED))
-                .toList();
         if(tasks.isEmpty()){
             throw new DatabaseEmptyException("No tasks found");
         }
         return tasks;
     }
 
+    /**
+     * Retrieves the uncompleted tasks of several employees at once, using a single
+     * {@code EMPLOYEE_ID IN (...)} query per {@link #IN_CLAUSE_CHUNK_SIZE} employees
+     * instead of one query per employee, and distributes them by {@code EMPLOYEE_ID}.
+     * The chunks are one-off keys, so their tasks are not kept in the {@link QueryCache}.
+     *
+     * @param employeeIds the IDs of the employees whose tasks should be loaded
+     * @return the tasks of every requested employee, with an empty list for employees without tasks
+     */
+    public Map<Long, List<Task>> getTasksByEmployeeFromDatabase(Collection<Long> employeeIds) {
+        Map<Long, List<Task>> tasksByEmployee = new HashMap<>();
+        for (Long employeeId : employeeIds) {
+            tasksByEmployee.put(employeeId, new ArrayList<>());
+        }
+        List<List<Long>> chunks = inClauseChunks(employeeIds);
+        if (chunks.isEmpty()) {
+            return tasksByEmployee;
+        }
+        for (List<Long> chunk : chunks) {
+            String sql = "SELECT " + TASK_COLUMNS + ", EMPLOYEE_ID FROM TASK WHERE EMPLOYEE_ID IN (" + placeholders(chunk.size()) + ") AND COMPLETION <> ?";
+            loadTasksByEmployee(sql, chunk).forEach((employeeId, tasks) -> tasksByEmployee.get(employeeId).addAll(tasks));
+        }
+        return tasksByEmployee;
+    }
+
+    private Map<Long, List<Task>> loadTasksByEmployee(String sql, List<Long> employeeIds) {
+        Map<Long, List<Task>> tasksByEmployee = new HashMap<>();
+        try(EntitySession session = EntitySession.join(); Connection connection = getConnection()) {
+            try(PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < employeeIds.size(); i++) {
+                    statement.setLong(i + 1, employeeIds.get(i));
+                }
+                statement.setString(employeeIds.size() + 1, TaskCompletion.COMPLETED.toString());
+                ResultSet resultSet = statement.executeQuery();
+                while(resultSet.next()) {
+                    tasksByEmployee.computeIfAbsent(resultSet.getLong("EMPLOYEE_ID"), key -> new ArrayList<>()).add(mapTask(resultSet, session));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        return tasksByEmployee;
+    }
+
+    private static Task mapTask(ResultSet resultSet, EntitySession session) throws SQLException {
+        return mapTask(resultSet, "", session);
+    }
+
+    static Task mapTask(ResultSet resultSet, String prefix, EntitySession session) throws SQLException {
+        return TaskRow.read(resultSet, prefix).toTask(session);
+    }
+
     /**
      * Retrieves all messages linked to a specific company by ID.
-     * Reconstructs each {@link Message} from the MESSAGE table and
-     * associates it with its {@link ProjectManager} and {@link Task} using a {@link Pair}.
+     * Reads every message together with its {@link ProjectManager} and {@link Task} in a single
+     * query joining MESSAGE with EMPLOYEE and TASK, and associates them using a {@link Pair}.
+     * As before, a message referring to a completed task carries no task.
+     * The company is resolved before a connection is borrowed, so a call never holds two pooled connections at once.
+     * The rows are served from the {@link QueryCache} until one of the joined tables changes,
+     * and every call builds its own messages from them.
      *
      * @param companyId the ID of the company to retrieve messages for
      * @return a set of {@link Message} objects associated with the company
      * @throws MessageException if no messages are found or a SQL error occurs
      */
     public Set<Message> getMessagesFromDatabase(Long companyId) throws MessageException {
+        String sql = SELECT_MESSAGE + " WHERE M.COMPANY_ID = ?";
         Set<Message> messages = new HashSet<>();
-        try(Connection connection = getConnection()){
-            try(PreparedStatement statement = connection.prepareStatement("SELECT ID, NAME, DESCRIPTION, TASK_ID, PROJECT_MANAGER_ID, COMPANY_ID FROM MESSAGE WHERE COMPANY_ID = ?")) {
-                statement.setLong(1, companyId);
+        try(EntitySession session = EntitySession.join()){
+            CompanyDatabaseRepository companyDatabaseRepository = new CompanyDatabaseRepository();
+            Company company = companyDatabaseRepository.findById(companyId);
+            List<MessageRow> rows = QueryCache.getOrLoad(sql, List.of(companyId), () -> {
+                List<MessageRow> loaded = new ArrayList<>();
+                try(Connection connection = getConnection();
+                    PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setLong(1, companyId);
+                    ResultSet resultSet = statement.executeQuery();
+                    while(resultSet.next()) {
+                        loaded.add(MessageRow.read(resultSet));
+                    }
+                } catch (SQLException e) {
+                    throw new DatabaseException(e);
+                }
+                return List.copyOf(loaded);
+            });
+            for (MessageRow row : rows) {
+                messages.add(row.toMessage(company, session));
+            }
+        }
+        if(messages.isEmpty()){
+            throw new MessageException("No messages found");
+        }
+        return messages;
+    }
+
+    /**
+     * Reads one page of the messages of a company, newest first.
+     * Pages are located with a keyset seek on the message ID instead of an {@code OFFSET},
+     * so the first page is read in constant time regardless of how many messages the company has.
+     *
+     * @param companyId the ID of the company to retrieve messages for
+     * @param after the cursor token returned with the previous page, or {@code null} for the first page
+     * @param pageSize the maximum number of messages on the page
+     * @return the page of messages
+     * @throws IllegalArgumentException if the cursor token is malformed
+     */
+    public Page<Message> getMessagesPageFromDatabase(Long companyId, String after, int pageSize) {
+        PageCursor cursor = PageCursor.fromToken(after, 1);
+        String sql = SELECT_MESSAGE + " WHERE M.COMPANY_ID = ?" + (cursor == null ? "" : " AND M.ID < ?")
+                + " ORDER BY M.ID DESC FETCH FIRST ? ROWS ONLY";
+        List<Message> messages = new ArrayList<>();
+        try(EntitySession session = EntitySession.join()){
+            Company company = new CompanyDatabaseRepository().findById(companyId);
+            try(Connection connection = getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                statement.setLong(index++, companyId);
+                if(cursor != null) {
+                    statement.setLong(index++, cursor.getLong(0));
+                }
+                statement.setInt(index, pageSize + 1);
                 ResultSet resultSet = statement.executeQuery();
                 while(resultSet.next()) {
-                    Long id = resultSet.getLong("ID");
-                    String name = resultSet.getString("NAME");
-                    String description = resultSet.getString("DESCRIPTION");
-                    CompanyDatabaseRepository companyDatabaseRepository = new CompanyDatabaseRepository();
-                    long taskId = resultSet.getLong("TASK_ID");
-                    Company company = companyDatabaseRepository.findById(companyId);
-                    Task task;
-                    if(taskId != -1) {
-                        task = company.getTasksList().stream()
-                                .filter(t -> t.getId().equals(taskId))
-                                .findFirst().orElse(null);
-                    }
-                    else{
-                        task = null;
-                    }
-                    Long projectManagerId = resultSet.getLong("PROJECT_MANAGER_ID");
+                    messages.add(MessageRow.read(resultSet).toMessage(company, session));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        return Page.of(messages, pageSize, message -> PageCursor.of(message.getId()));
+    }
+
+    /**
+     * Column values of a task row. Rows are immutable, so they can be kept in the {@link QueryCache}
+     * and shared between threads, while the tasks built from them belong to a single {@link EntitySession}.
+     */
+    private record TaskRow(Long id, String name, String description, LocalDate dateDue, TaskCompletion completion,
+                           String createdBy, Long companyId) {
+
+        static TaskRow read(ResultSet resultSet, String prefix) throws SQLException {
+            return new TaskRow(resultSet.getLong(prefix + "ID"),
+                    resultSet.getString(prefix + "NAME"),
+                    resultSet.getString(prefix + "DESCRIPTION"),
+                    LocalDate.parse(resultSet.getDate(prefix + "DATE_DUE").toString()),
+                    TaskCompletion.valueOf(resultSet.getString(prefix + "COMPLETION")),
+                    resultSet.getString(prefix + "CREATED_BY"),
+                    resultSet.getLong(prefix + "COMPANY_ID"));
+        }
+
+        Task toTask(EntitySession session) {
+            Task registered = session.get(Task.class, id);
+            if(registered != null) {
+                return registered;
+            }
+            return session.register(Task.class, new Task(id, name, description, dateDue, completion, createdBy, companyId));
+        }
+    }
+
+    /**
+     * Column values of a message row joined with its project manager and task, see {@link TaskRow}.
+     */
+    private record MessageRow(Long id, String name, String description, TaskRow task, Long projectManagerId,
+                              String projectManagerName, Role projectManagerRole) {
 
-                    ProjectManager projectManager = (ProjectManager) company.getEmployeesList().stream()
-                                .filter(e -> e.getId().equals(projectManagerId))
-                                .findFirst()
-                                .orElse(null);
+        static MessageRow read(ResultSet resultSet) throws SQLException {
+            TaskRow task = resultSet.getString("TASK_NAME") == null ? null : TaskRow.read(resultSet, "TASK_");
+            String projectManagerName = resultSet.getString("PROJECT_MANAGER_NAME");
+            return new MessageRow(resultSet.getLong("ID"),
+                    resultSet.getString("NAME"),
+                    resultSet.getString("DESCRIPTION"),
+                    task,
+                    resultSet.getLong("PROJECT_MANAGER_ID"),
+                    projectManagerName,
+                    projectManagerName == null ? null : Role.valueOf(resultSet.getString("PROJECT_MANAGER_ROLE")));
+        }
 
-                    Pair<ProjectManager, Task> pair = new Pair<>(projectManager, task);
+        Message toMessage(Company company, EntitySession session) {
+            Task messageTask = null;
+            if(task != null && !task.completion().equals(TaskCompletion.COMPLETED)) {
+                messageTask = task.toTask(session);
+            }
 
-                    Message message = new Message(id, name, description, pair);
-                    messages.add(message);
+            ProjectManager projectManager = null;
+            if(projectManagerName != null) {
+                Employee registered = session.get(Employee.class, projectManagerId);
+                if(registered instanceof ProjectManager registeredManager) {
+                    projectManager = registeredManager;
+                }
+                else {
+                    ProjectManager.Builder builder = new ProjectManager.Builder();
+                    ProjectManager built = (ProjectManager) builder.withId(projectManagerId)
+                            .withName(projectManagerName)
+                            .withRole(projectManagerRole)
+                            .withEmployer(company)
+                            .build();
+                    // The session may already hold this ID as a team member, if the role changed since it was loaded.
+                    Employee sessionEmployee = session.register(Employee.class, built);
+                    projectManager = sessionEmployee instanceof ProjectManager sessionManager ? sessionManager : built;
                 }
             }
-        } catch (SQLException e) {
-            throw new DatabaseException(e);
+
+            Pair<ProjectManager, Task> pair = new Pair<>(projectManager, messageTask);
+            return new Message(id, name, description, pair);
         }
-        if(messages.isEmpty()){
-            throw new MessageException("No messages found");
+    }
+
+    /**
+     * Loads the database properties from the properties file when first read.
+     * The class initialization guards the loading, instead of the lock of {@link Database}.
+     */
+    private static final class PropertiesHolder {
+        private static final Properties PROPERTIES = load();
+
+        private static Properties load() {
+            Properties loaded = new Properties();
+            try(BufferedReader br = new BufferedReader(new FileReader(PROPERTIES_FILE_NAME))) {
+                loaded.load(br);
+            }catch (IOException e) {
+                LogUtils.error(e.getMessage());
+            }
+            return loaded;
         }
-        return messages;
     }
 }
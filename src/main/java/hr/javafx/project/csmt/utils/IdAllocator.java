@@ -0,0 +1,251 @@
+package hr.javafx.project.csmt.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Allocates primary keys for rows inserted by the repositories.
+ * Supports two strategies selected with the {@code id.strategy} database property:
+ * {@code identity} (default) lets the database assign the key through an identity column
+ * and reads it back with {@link Statement#getGeneratedKeys()}, while {@code sequence}
+ * draws keys from a {@code <TABLE>_SEQ} sequence using the hi/lo algorithm,
+ * so that one sequence call reserves a block of {@code id.blockSize} keys.
+ * Both strategies are safe under concurrent registrations, unlike scanning the table for the last ID.
+ * The block size must not be changed once a sequence has been used.
+ *
+ */
+
+public class IdAllocator {
+
+    /**
+     * The ways a primary key can be assigned to a new row.
+     */
+    public enum Strategy {
+        IDENTITY, SEQUENCE
+    }
+
+    private static IdAllocator instance;
+
+    private final Strategy strategy;
+    private final int blockSize;
+    private final Map<String, long[]> blocks = new HashMap<>();
+
+    private IdAllocator(Strategy strategy, int blockSize) {
+        this.strategy = strategy;
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * Returns the shared allocator configured from the database properties.
+     *
+     * @return the shared {@code IdAllocator}
+     */
+    public static synchronized IdAllocator getInstance() {
+        if (instance == null) {
+            String configured = Database.getProperties().getProperty("id.strategy", Strategy.IDENTITY.name());
+            Strategy strategy = Strategy.valueOf(configured.trim().toUpperCase(Locale.ROOT));
+            instance = new IdAllocator(strategy, (int) Database.getLongProperty("id.blockSize", 1));
+        }
+        return instance;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Reserves the next key for the given table.
+     *
+     * @param connection the connection used for reading the sequence
+     * @param table the table the key is allocated for
+     * @return the reserved key, or {@code null} when the database assigns keys itself
+     * @throws SQLException if the sequence cannot be read
+     */
+    public synchronized Long nextId(Connection connection, String table) throws SQLException {
+        if (strategy == Strategy.IDENTITY) {
+            return null;
+        }
+        long[] block = blocks.get(table);
+        if (block == null || block[0] > block[1]) {
+            long hi = nextSequenceValue(connection, table);
+            block = new long[]{hi * blockSize, hi * blockSize + blockSize - 1};
+            blocks.put(table, block);
+        }
+        return block[0]++;
+    }
+
+    /**
+     * Reserves the given number of keys for the given table.
+     *
+     * @param connection the connection used for reading the sequence
+     * @param table the table the keys are allocated for
+     * @param count the number of keys to reserve
+     * @return the reserved keys, or a list of {@code null} values when the database assigns keys itself
+     * @throws SQLException if the sequence cannot be read
+     */
+    public synchronized List<Long> nextIds(Connection connection, String table, int count) throws SQLException {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(nextId(connection, table));
+        }
+        return ids;
+    }
+
+    /**
+     * Prepares an INSERT statement for the given columns.
+     * When a key has been reserved, the {@code ID} column is appended as the last column and bound,
+     * so the caller binds its own values starting from index 1 in both strategies.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param table the table to insert into
+     * @param columns the comma separated list of columns, without {@code ID}
+     * @param id the reserved key or {@code null} when the database assigns keys itself
+     * @return the prepared statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepareInsert(Connection connection, String table, String columns, Long id) throws SQLException {
+        int columnCount = columns.split(",").length;
+        if (id == null) {
+            String sql = "INSERT INTO " + table + "(" + columns + ") VALUES (" + Database.placeholders(columnCount) + ")";
+            return connection.prepareStatement(sql, new String[]{"ID"});
+        }
+        String sql = "INSERT INTO " + table + "(" + columns + ", ID) VALUES (" + Database.placeholders(columnCount + 1) + ")";
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setLong(columnCount + 1, id);
+        return statement;
+    }
+
+    /**
+     * Inserts the given rows with JDBC batches of {@code batch.size} rows (500 by default) in a single transaction
+     * and returns the keys of the inserted rows. Keys are reserved up front with the sequence strategy,
+     * or read back from the generated keys of every batch with the identity strategy.
+     * Either all rows are inserted or, if any batch fails, none of them.
+     *
+     * @param connection the connection to insert the rows on
+     * @param table the table to insert into
+     * @param columns the comma separated list of columns, without {@code ID}
+     * @param rows the rows to insert
+     * @param binder binds the column values of a row, starting from index 1
+     * @param <T> the type of the rows
+     * @return the keys of the inserted rows, in the order of the rows
+     * @throws SQLException if the rows cannot be inserted
+     */
+    public <T> List<Long> insertBatch(Connection connection, String table, String columns, List<T> rows, RowBinder<T> binder) throws SQLException {
+        List<Long> assigned = new ArrayList<>(rows.size());
+        if (rows.isEmpty()) {
+            return assigned;
+        }
+        int batchSize = (int) Math.max(1, Database.getLongProperty("batch.size", 500));
+        int columnCount = columns.split(",").length;
+        List<Long> ids = nextIds(connection, table, rows.size());
+        boolean reserved = ids.getFirst() != null;
+        String sql = "INSERT INTO " + table + "(" + columns + (reserved ? ", ID" : "") + ") VALUES ("
+                + Database.placeholders(reserved ? columnCount + 1 : columnCount) + ")";
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = reserved ? connection.prepareStatement(sql) : connection.prepareStatement(sql, new String[]{"ID"})) {
+            for (int start = 0; start < rows.size(); start += batchSize) {
+                List<T> batch = rows.subList(start, Math.min(rows.size(), start + batchSize));
+                for (int i = 0; i < batch.size(); i++) {
+                    binder.bind(statement, batch.get(i));
+                    if (reserved) {
+                        statement.setLong(columnCount + 1, ids.get(start + i));
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                assigned.addAll(getAssignedIds(statement, ids.subList(start, start + batch.size()), batch.size()));
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return assigned;
+    }
+
+    /**
+     * Binds the column values of a row to an INSERT statement.
+     *
+     * @param <T> the type of the row
+     */
+    @FunctionalInterface
+    public interface RowBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    /**
+     * Returns the key of the row inserted by the given statement.
+     *
+     * @param statement the executed INSERT statement
+     * @param id the reserved key or {@code null} when the database assigned the key
+     * @return the key of the inserted row
+     * @throws SQLException if the generated key cannot be read
+     */
+    public Long getAssignedId(PreparedStatement statement, Long id) throws SQLException {
+        return getAssignedIds(statement, id == null ? List.of() : List.of(id), 1).getFirst();
+    }
+
+    /**
+     * Returns the keys of the rows inserted by the given statement, in insertion order.
+     *
+     * @param statement the executed INSERT statement or batch
+     * @param ids the reserved keys, or an empty list when the database assigned the keys
+     * @param count the number of inserted rows
+     * @return the keys of the inserted rows
+     * @throws SQLException if the generated keys cannot be read
+     */
+    public List<Long> getAssignedIds(PreparedStatement statement, List<Long> ids, int count) throws SQLException {
+        if (!ids.isEmpty() && ids.getFirst() != null) {
+            return ids;
+        }
+        List<Long> generated = new ArrayList<>(count);
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            while (keys.next()) {
+                generated.add(keys.getLong(1));
+            }
+        }
+        if (generated.size() != count) {
+            throw new SQLException("Expected " + count + " generated keys but the database returned " + generated.size());
+        }
+        return generated;
+    }
+
+    private long nextSequenceValue(Connection connection, String table) throws SQLException {
+        String sequence = table + "_SEQ";
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery("SELECT NEXT VALUE FOR " + sequence)) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            } catch (SQLException e) {
+                createSequence(statement, table, sequence);
+            }
+            try (ResultSet resultSet = statement.executeQuery("SELECT NEXT VALUE FOR " + sequence)) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private void createSequence(Statement statement, String table, String sequence) throws SQLException {
+        long maxId;
+        try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(ID), 0) FROM " + table)) {
+            resultSet.next();
+            maxId = resultSet.getLong(1);
+        }
+        long start = maxId / blockSize + 1;
+        statement.executeUpdate("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH " + start);
+        LogUtils.info("Created sequence " + sequence + " starting at " + start);
+    }
+}
@@ -0,0 +1,185 @@
+package hr.javafx.project.csmt.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Invocation handler timing every execution of a statement handed out by the {@link ConnectionPool}
+ * and reporting it to {@link QueryMetrics} and to the {@link ActionScope} of the executing thread.
+ * Updates are reported as soon as they return, with their update count as the number of rows.
+ * Queries are reported once their result set is exhausted or closed, or the statement is closed or executed again,
+ * with the time spent executing the query and fetching its rows, excluding the time the caller spent between rows.
+ *
+ */
+
+final class InstrumentedStatement implements InvocationHandler {
+    private final Statement statement;
+    private final String sql;
+    private PendingQuery pending;
+
+    private InstrumentedStatement(Statement statement, String sql) {
+        this.statement = statement;
+        this.sql = sql;
+    }
+
+    /**
+     * Wraps a statement so that its executions are recorded.
+     *
+     * @param statement the statement to wrap
+     * @param sql the SQL the statement was prepared with, or {@code null} for a plain statement
+     * @param type the JDBC interface the statement implements
+     * @param <T> the type of the statement
+     * @return the instrumented statement
+     */
+    static <T extends Statement> T wrap(T statement, String sql, Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[]{type}, new InstrumentedStatement(statement, sql)));
+    }
+
+    /**
+     * Returns the JDBC interface a connection method creating statements returns.
+     *
+     * @param method the connection method
+     * @return the statement interface, or {@code null} if the method does not create statements
+     */
+    static Class<? extends Statement> statementType(Method method) {
+        return switch (method.getName()) {
+            case "createStatement" -> Statement.class;
+            case "prepareStatement" -> PreparedStatement.class;
+            case "prepareCall" -> CallableStatement.class;
+            default -> null;
+        };
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.equals("close")) {
+            finishPending();
+        } else if (name.equals("equals")) {
+            return proxy == args[0];
+        } else if (name.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        } else if (name.startsWith("execute")) {
+            return execute(method, args);
+        }
+        return invokeTarget(statement, method, args);
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        finishPending();
+        String executedSql = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+        if (executedSql != null) {
+            ActionScope.recordStatement(executedSql);
+        }
+        long start = System.nanoTime();
+        Object result = invokeTarget(statement, method, args);
+        long elapsed = System.nanoTime() - start;
+        if (result instanceof ResultSet resultSet) {
+            pending = new PendingQuery(executedSql, elapsed);
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    new InstrumentedResultSet(resultSet, pending));
+        }
+        long rows = result instanceof Boolean ? Math.max(0, statement.getUpdateCount()) : rowsOf(result);
+        QueryMetrics.recordExecution(executedSql == null ? "<unknown>" : executedSql, elapsed, rows);
+        return result;
+    }
+
+    private void finishPending() {
+        if (pending != null) {
+            pending.finish();
+            pending = null;
+        }
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Query whose rows are still being read.
+     */
+    private static final class PendingQuery {
+        private final String sql;
+        private long nanos;
+        private long rows;
+        private boolean finished;
+
+        private PendingQuery(String sql, long nanos) {
+            this.sql = sql;
+            this.nanos = nanos;
+        }
+
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                QueryMetrics.recordExecution(sql == null ? "<unknown>" : sql, nanos, rows);
+            }
+        }
+    }
+
+    /**
+     * Invocation handler counting the rows read from a result set and the time spent fetching them.
+     */
+    private record InstrumentedResultSet(ResultSet resultSet, PendingQuery query) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    long start = System.nanoTime();
+                    boolean hasRow = (Boolean) invokeTarget(resultSet, method, args);
+                    query.nanos += System.nanoTime() - start;
+                    if (hasRow) {
+                        query.rows++;
+                    } else {
+                        query.finish();
+                    }
+                    return hasRow;
+                }
+                case "close" -> {
+                    query.finish();
+                    return invokeTarget(resultSet, method, args);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    return invokeTarget(resultSet, method, args);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package hr.javafx.project.csmt.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies with logarithmic buckets.
+ * Every power of two of microseconds is split into four buckets, so a reported percentile is at most
+ * about 19% above the real value, while the histogram uses the same small amount of memory
+ * no matter how many latencies it records. Latencies from 1 microsecond up to about an hour are
+ * told apart; longer ones fall into the last bucket. The maximum is tracked exactly.
+ *
+ */
+
+public final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 32 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the latency below which the given share of the recorded latencies fall.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, never above the maximum,
+     *         or 0 if nothing has been recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    private static int bucketOf(long nanos) {
+        double micros = nanos / 1_000.0;
+        if (micros <= 1) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(SUB_BUCKETS * Math.log(micros) / Math.log(2));
+        return Math.min(BUCKETS - 1, bucket);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return (long) (Math.pow(2, bucket / (double) SUB_BUCKETS) * 1_000);
+    }
+}
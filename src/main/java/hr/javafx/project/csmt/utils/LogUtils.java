@@ -17,6 +17,7 @@ public class LogUtils {
     private LogUtils() {}
 
     private static final Logger logger = LoggerFactory.getLogger(LogUtils.class);
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("slow-query");
 
     /**
      * Logs an informational message at the INFO level.
@@ -27,6 +28,15 @@ public class LogUtils {
         logger.info(message);
     }
 
+    /**
+     * Logs a warning message at the WARN level.
+     *
+     * @param message the message to log
+     */
+    public static void warn(String message) {
+        logger.warn(message);
+    }
+
     /**
      * Logs an error message at the ERROR level.
      *
@@ -35,4 +45,13 @@ public class LogUtils {
     public static void error(String message) {
         logger.error(message);
     }
+
+    /**
+     * Logs a slow SQL statement at the WARN level to the slow query log.
+     *
+     * @param message the description of the statement
+     */
+    public static void slowQuery(String message) {
+        slowQueryLogger.warn(message);
+    }
 }
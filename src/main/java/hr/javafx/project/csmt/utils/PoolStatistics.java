@@ -0,0 +1,40 @@
+package hr.javafx.project.csmt.utils;
+
+/**
+ * Immutable snapshot of the {@link ConnectionPool} usage.
+ * Used for sizing the pool: a high wait time or a growing number of timeouts
+ * means the maximum size is too small for the current load, while a low statement cache hit ratio
+ * means the per-connection statement cache is too small for the SQL in use.
+ *
+ * @param active the number of connections currently borrowed
+ * @param idle the number of open connections waiting in the pool
+ * @param minSize the configured minimum number of open connections
+ * @param maxSize the configured maximum number of borrowed connections
+ * @param acquired the total number of successful acquisitions
+ * @param timeouts the total number of acquisitions that timed out
+ * @param averageWaitMillis the average time spent waiting for a connection
+ * @param maxWaitMillis the longest time spent waiting for a connection
+ * @param statementCacheHits the number of prepared statements served from the statement cache
+ * @param statementCacheMisses the number of prepared statements that had to be prepared
+ */
+
+public record PoolStatistics(int active, int idle, int minSize, int maxSize, long acquired, long timeouts,
+                             double averageWaitMillis, double maxWaitMillis,
+                             long statementCacheHits, long statementCacheMisses) {
+
+    /**
+     * Returns the share of prepared statements served from the statement cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if no statement has been prepared yet
+     */
+    public double statementCacheHitRatio() {
+        long total = statementCacheHits + statementCacheMisses;
+        return total == 0 ? 0 : statementCacheHits / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolStatistics{active=%d, idle=%d, min=%d, max=%d, acquired=%d, timeouts=%d, averageWait=%.3f ms, maxWait=%.3f ms, statementCacheHitRatio=%.3f}",
+                active, idle, minSize, maxSize, acquired, timeouts, averageWaitMillis, maxWaitMillis, statementCacheHitRatio());
+    }
+}
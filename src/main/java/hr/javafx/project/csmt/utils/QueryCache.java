@@ -0,0 +1,149 @@
+package hr.javafx.project.csmt.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of query results keyed by the SQL of the query and its bind values, used by {@link Database}
+ * for the queries screens re-run within seconds of each other.
+ * Every table has a version counter that is bumped whenever a statement writing to it is prepared
+ * on a pooled connection, and again once that connection commits, rolls back or is returned to the pool.
+ * A cached result remembers the versions of the tables its query reads, and is dropped as soon as
+ * any of them changes, so a result is never served after a write to one of its tables.
+ * At most {@code queryCache.maxSize} results (500 by default) are kept, the least recently used
+ * being dropped first, and none is kept longer than {@code queryCache.ttlSeconds} seconds (60 by default)
+ * to bound the staleness of rows written by other applications. A maximum size of 0 disables the cache.
+ * Both settings are read once, when the class is initialized, so lookups never touch the shared properties.
+ * Cached results are shared between threads, so they must be immutable: {@link Database} caches the column values
+ * of the rows it reads and builds new entities from them on every call.
+ *
+ */
+
+public class QueryCache {
+    private static final Pattern READ_TABLE = Pattern.compile("\\b(?:FROM|JOIN)\\s+([A-Za-z_][A-Za-z0-9_]*)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WRITTEN_TABLE = Pattern.compile("^\\s*(?:INSERT\\s+INTO|UPDATE|DELETE\\s+FROM|MERGE\\s+INTO)\\s+([A-Za-z_][A-Za-z0-9_]*)", Pattern.CASE_INSENSITIVE);
+    private static final Map<String, AtomicLong> TABLE_VERSIONS = new ConcurrentHashMap<>();
+    private static final Map<String, CachedResult> RESULTS = new LinkedHashMap<>(16, 0.75f, true);
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder INVALIDATIONS = new LongAdder();
+    private static final int MAX_SIZE = (int) Database.getLongProperty("queryCache.maxSize", 500);
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(Database.getLongProperty("queryCache.ttlSeconds", 60));
+
+    private record CachedResult(Object value, Map<String, Long> versions, long expiresAt) {}
+
+    private QueryCache() {}
+
+    /**
+     * Returns the cached result of a query, running the loader and caching its result on a miss.
+     * The table versions are read before the loader runs, so a write that happens while
+     * the query is running invalidates the result it produced.
+     *
+     * @param sql the SQL of the query, from which the tables it reads are taken
+     * @param parameters the bind values of the query
+     * @param loader runs the query and maps its result
+     * @param <T> the type of the result
+     * @return the cached or freshly loaded result
+     */
+    public static <T> T getOrLoad(String sql, List<?> parameters, Supplier<T> loader) {
+        if (MAX_SIZE <= 0) {
+            return loader.get();
+        }
+        String key = sql + " " + parameters;
+        Map<String, Long> versions = readVersions(sql);
+        synchronized (RESULTS) {
+            CachedResult cached = RESULTS.get(key);
+            if (cached != null && cached.versions().equals(versions) && cached.expiresAt() - System.nanoTime() > 0) {
+                HITS.increment();
+                @SuppressWarnings("unchecked")
+                T value = (T) cached.value();
+                return value;
+            }
+            if (cached != null) {
+                RESULTS.remove(key);
+            }
+        }
+        MISSES.increment();
+        T value = loader.get();
+        synchronized (RESULTS) {
+            RESULTS.put(key, new CachedResult(value, versions, System.nanoTime() + TTL_NANOS));
+            Iterator<CachedResult> iterator = RESULTS.values().iterator();
+            while (RESULTS.size() > MAX_SIZE && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the table an SQL statement writes to.
+     *
+     * @param sql the SQL of the statement
+     * @return the upper case name of the written table, or {@code null} if the statement does not write
+     */
+    public static String getWrittenTable(String sql) {
+        Matcher matcher = WRITTEN_TABLE.matcher(sql);
+        return matcher.find() ? matcher.group(1).toUpperCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Bumps the version of a table, invalidating every cached result read from it.
+     *
+     * @param table the name of the written table
+     */
+    public static void invalidate(String table) {
+        TABLE_VERSIONS.computeIfAbsent(table.toUpperCase(Locale.ROOT), key -> new AtomicLong()).incrementAndGet();
+        INVALIDATIONS.increment();
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    public static void clear() {
+        synchronized (RESULTS) {
+            RESULTS.clear();
+        }
+    }
+
+    /**
+     * Returns a summary of the cache usage for logging.
+     *
+     * @return the number of cached results, hits, misses and table invalidations
+     */
+    public static String getStatistics() {
+        int size;
+        synchronized (RESULTS) {
+            size = RESULTS.size();
+        }
+        long hits = HITS.sum();
+        long total = hits + MISSES.sum();
+        return String.format("QueryCache{size=%d, hits=%d, misses=%d, invalidations=%d, hitRatio=%.3f}",
+                size, hits, MISSES.sum(), INVALIDATIONS.sum(), total == 0 ? 0 : hits / (double) total);
+    }
+
+    private static Map<String, Long> readVersions(String sql) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher matcher = READ_TABLE.matcher(sql);
+        while (matcher.find()) {
+            tables.add(matcher.group(1).toUpperCase(Locale.ROOT));
+        }
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (String table : tables) {
+            versions.put(table, TABLE_VERSIONS.computeIfAbsent(table, key -> new AtomicLong()).get());
+        }
+        return versions;
+    }
+}
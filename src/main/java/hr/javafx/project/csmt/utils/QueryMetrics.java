@@ -0,0 +1,133 @@
+package hr.javafx.project.csmt.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the latency of every SQL statement executed through the {@link ConnectionPool}
+ * and of every connection acquisition, to find the hot and slow queries of the application.
+ * Statements are grouped by their shape: the SQL with literals replaced by {@code ?}, whitespace
+ * collapsed and {@code IN} lists of any length folded into one, so the same query with different values
+ * or chunk sizes is counted once. Each shape keeps a {@link LatencyHistogram} and a row count.
+ * Every statement slower than {@code sql.slowQueryMillis} milliseconds (500 by default) is written
+ * to the slow query log through {@link LogUtils#slowQuery(String)}; a threshold of 0 logs every statement.
+ * The threshold is read once, when the class is initialized, so recording a statement never touches the shared properties.
+ *
+ */
+
+public class QueryMetrics {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SHAPES = 1_000;
+
+    private static final Map<String, ShapeMetrics> SHAPES = new ConcurrentHashMap<>();
+    private static final Map<String, String> SHAPE_OF_SQL = new ConcurrentHashMap<>();
+    private static final LatencyHistogram ACQUIRE_TIMES = new LatencyHistogram();
+    private static final long SLOW_QUERY_NANOS = TimeUnit.MILLISECONDS.toNanos(Database.getLongProperty("sql.slowQueryMillis", 500));
+
+    private QueryMetrics() {}
+
+    private record ShapeMetrics(LatencyHistogram latencies, LongAdder rows) {}
+
+    /**
+     * Records one execution of a statement and writes it to the slow query log if it exceeded the threshold.
+     *
+     * @param sql the executed SQL
+     * @param nanos the time spent executing the statement and reading its rows
+     * @param rows the number of rows read or written
+     */
+    public static void recordExecution(String sql, long nanos, long rows) {
+        String shape = getShape(sql);
+        ShapeMetrics metrics = SHAPES.get(shape);
+        if (metrics == null && SHAPES.size() < MAX_SHAPES) {
+            metrics = SHAPES.computeIfAbsent(shape, key -> new ShapeMetrics(new LatencyHistogram(), new LongAdder()));
+        }
+        if (metrics != null) {
+            metrics.latencies().record(nanos);
+            metrics.rows().add(Math.max(0, rows));
+        }
+        if (nanos >= SLOW_QUERY_NANOS) {
+            LogUtils.slowQuery(String.format("%.3f ms, %d rows: %s",
+                    nanos / 1_000_000.0, rows, WHITESPACE.matcher(sql.trim()).replaceAll(" ")));
+        }
+    }
+
+    /**
+     * Records the time spent waiting for a pooled connection.
+     *
+     * @param nanos the time between the request for a connection and its acquisition
+     */
+    public static void recordAcquire(long nanos) {
+        ACQUIRE_TIMES.record(nanos);
+    }
+
+    /**
+     * Returns the normalized shape of an SQL statement, under which its executions are grouped.
+     *
+     * @param sql the SQL of the statement
+     * @return the SQL without literals, with collapsed whitespace and folded {@code IN} lists
+     */
+    public static String getShape(String sql) {
+        String shape = SHAPE_OF_SQL.get(sql);
+        if (shape == null) {
+            shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+            shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+            shape = WHITESPACE.matcher(shape.trim()).replaceAll(" ");
+            shape = IN_LIST.matcher(shape).replaceAll("IN (?...)");
+            if (SHAPE_OF_SQL.size() < MAX_SHAPES * 4) {
+                SHAPE_OF_SQL.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Returns the statistics of every recorded statement shape, the one with the highest total time first.
+     *
+     * @return one snapshot per statement shape
+     */
+    public static List<StatementStatistics> getStatementStatistics() {
+        List<StatementStatistics> statistics = new ArrayList<>();
+        SHAPES.forEach((shape, metrics) -> {
+            LatencyHistogram latencies = metrics.latencies();
+            statistics.add(new StatementStatistics(shape, latencies.getCount(), metrics.rows().sum(),
+                    toMillis(latencies.getTotalNanos()), toMillis(latencies.getPercentileNanos(50)),
+                    toMillis(latencies.getPercentileNanos(99)), toMillis(latencies.getMaxNanos())));
+        });
+        statistics.sort(Comparator.comparingDouble(StatementStatistics::totalMillis).reversed());
+        return statistics;
+    }
+
+    /**
+     * Returns a summary of the connection acquire times.
+     *
+     * @return the number of acquisitions and their p50, p99 and maximum wait
+     */
+    public static String getAcquireStatistics() {
+        return String.format("ConnectionAcquire{count=%d, p50=%.3f ms, p99=%.3f ms, max=%.3f ms}",
+                ACQUIRE_TIMES.getCount(), toMillis(ACQUIRE_TIMES.getPercentileNanos(50)),
+                toMillis(ACQUIRE_TIMES.getPercentileNanos(99)), toMillis(ACQUIRE_TIMES.getMaxNanos()));
+    }
+
+    /**
+     * Logs the connection acquire times and the given number of statement shapes with the highest total time.
+     *
+     * @param limit the maximum number of statement shapes to log
+     */
+    public static void logSummary(int limit) {
+        LogUtils.info(getAcquireStatistics());
+        getStatementStatistics().stream().limit(limit).forEach(statistics -> LogUtils.info(statistics.toString()));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,137 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.exception.DatabaseException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utility class exposing query results as lazily evaluated streams backed by a forward-only {@link ResultSet}.
+ * Rows are mapped one at a time as the stream is consumed, and the driver fetches them from the database
+ * in batches of the configured fetch size, so a stream over a large table runs in constant memory.
+ * The returned streams hold a pooled connection until they are exhausted or closed,
+ * so they must be used in a try-with-resources block.
+ * The fetch size defaults to the {@code stream.fetchSize} database property (500 by default).
+ *
+ */
+
+public class ResultSetStream {
+    private ResultSetStream() {}
+
+    /**
+     * Maps the current row of a result set to an object.
+     *
+     * @param <T> the type of the mapped object
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet resultSet) throws SQLException;
+    }
+
+    /**
+     * Binds the parameters of a prepared statement before it is executed.
+     */
+    @FunctionalInterface
+    public interface ParameterBinder {
+        void bind(PreparedStatement preparedStatement) throws SQLException;
+    }
+
+    /**
+     * Returns the configured number of rows fetched from the database per round trip.
+     *
+     * @return the default fetch size
+     */
+    public static int getDefaultFetchSize() {
+        return (int) Math.max(1, Database.getLongProperty("stream.fetchSize", 500));
+    }
+
+    /**
+     * Executes a query and returns its rows as a stream. The connection, statement and result set
+     * are released when the stream is closed, or as soon as its last row has been read.
+     *
+     * @param sql the query to execute
+     * @param binder binds the parameters of the query
+     * @param fetchSize the number of rows fetched from the database per round trip
+     * @param mapper maps every row to an object
+     * @param <T> the type of the mapped objects
+     * @return a sequential stream of the mapped rows
+     * @throws DatabaseException if the query cannot be executed
+     */
+    public static <T> Stream<T> of(String sql, ParameterBinder binder, int fetchSize, RowMapper<T> mapper) {
+        Database database = new Database();
+        Connection connection = database.getConnection();
+        if (connection == null) {
+            throw new DatabaseException("Unable to obtain a database connection");
+        }
+        try {
+            connection.setAutoCommit(false);
+            PreparedStatement preparedStatement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+            binder.bind(preparedStatement);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            CursorSpliterator<T> spliterator = new CursorSpliterator<>(connection, preparedStatement, resultSet, mapper);
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new DatabaseException(e);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LogUtils.error(e.getMessage());
+        }
+    }
+
+    private static final class CursorSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection connection;
+        private final PreparedStatement preparedStatement;
+        private final ResultSet resultSet;
+        private final RowMapper<T> mapper;
+        private boolean closed;
+
+        private CursorSpliterator(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connection = connection;
+            this.preparedStatement = preparedStatement;
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!resultSet.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(mapper.map(resultSet));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new DatabaseException(e);
+            }
+        }
+
+        private void close() {
+            if (!closed) {
+                closed = true;
+                closeQuietly(resultSet);
+                closeQuietly(preparedStatement);
+                closeQuietly(connection);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.exception.DatabaseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Brings the database schema up to date by applying the versioned SQL migrations
+ * bundled with the application under {@value #MIGRATION_PATH}.
+ * The migrations are listed in order in {@code migrations.txt} and named {@code V<version>__<description>.sql}.
+ * Every applied migration is recorded in the SCHEMA_VERSION table, so each script runs exactly once
+ * and a restarted application only applies the migrations added since its last start.
+ * Each migration runs in its own transaction.
+ *
+ */
+
+public class SchemaMigrator {
+    public static final String MIGRATION_PATH = "/hr/javafx/project/csmt/db/migration/";
+    private static final String INDEX_FILE_NAME = "migrations.txt";
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS SCHEMA_VERSION (" +
+            "VERSION INT PRIMARY KEY, DESCRIPTION VARCHAR(255) NOT NULL, SCRIPT VARCHAR(255) NOT NULL, " +
+            "INSTALLED_ON TIMESTAMP NOT NULL)";
+
+    /**
+     * Migration script bundled with the application.
+     *
+     * @param version the version the script brings the schema to
+     * @param description the description taken from the script name
+     * @param script the file name of the script
+     */
+    public record Migration(int version, String description, String script) {}
+
+    /**
+     * Applies every pending migration on the given connection.
+     *
+     * @param connection the connection to migrate the schema through
+     * @return the number of applied migrations
+     * @throws DatabaseException if a migration cannot be read or fails
+     */
+    public int migrate(Connection connection) {
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            try(Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_VERSION_TABLE);
+            }
+            Set<Integer> applied = getAppliedVersions(connection);
+            int count = 0;
+            connection.setAutoCommit(false);
+            try {
+                for (Migration migration : getMigrations()) {
+                    if (!applied.contains(migration.version())) {
+                        apply(connection, migration);
+                        count++;
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return count;
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    /**
+     * Returns the bundled migrations in the order they are applied.
+     *
+     * @return the listed migrations
+     * @throws DatabaseException if the index file is missing or lists an invalid script name
+     */
+    public List<Migration> getMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        for (String line : readLines(INDEX_FILE_NAME)) {
+            String script = line.trim();
+            if (script.isEmpty() || script.startsWith("#")) {
+                continue;
+            }
+            int separator = script.indexOf("__");
+            if (!script.startsWith("V") || separator < 2 || !script.endsWith(".sql")) {
+                throw new DatabaseException("Invalid migration script name: " + script);
+            }
+            try {
+                int version = Integer.parseInt(script.substring(1, separator));
+                String description = script.substring(separator + 2, script.length() - ".sql".length()).replace('_', ' ');
+                migrations.add(new Migration(version, description, script));
+            } catch (NumberFormatException e) {
+                throw new DatabaseException("Invalid migration script name: " + script, e);
+            }
+        }
+        return migrations;
+    }
+
+    private Set<Integer> getAppliedVersions(Connection connection) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try(Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT VERSION FROM SCHEMA_VERSION")) {
+            while (resultSet.next()) {
+                versions.add(resultSet.getInt("VERSION"));
+            }
+        }
+        return versions;
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        try(Statement statement = connection.createStatement();
+            PreparedStatement record = connection.prepareStatement(
+                    "INSERT INTO SCHEMA_VERSION(VERSION, DESCRIPTION, SCRIPT, INSTALLED_ON) VALUES(?, ?, ?, ?)")) {
+            for (String sql : splitStatements(String.join("\n", readLines(migration.script())))) {
+                statement.execute(sql);
+            }
+            record.setInt(1, migration.version());
+            record.setString(2, migration.description());
+            record.setString(3, migration.script());
+            record.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            record.executeUpdate();
+            connection.commit();
+            LogUtils.info("Applied schema migration " + migration.script());
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Schema migration " + migration.script() + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static List<String> readLines(String fileName) {
+        InputStream inputStream = SchemaMigrator.class.getResourceAsStream(MIGRATION_PATH + fileName);
+        if (inputStream == null) {
+            throw new DatabaseException("Missing migration resource: " + MIGRATION_PATH + fileName);
+        }
+        try(BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            return br.lines().toList();
+        } catch (IOException e) {
+            throw new DatabaseException(e);
+        }
+    }
+}
@@ -3,12 +3,14 @@ package hr.javafx.project.csmt.utils;
 import hr.javafx.project.csmt.LoginApplication;
 import hr.javafx.project.csmt.controller.manager.ProjectManagerMainScreenController;
 import hr.javafx.project.csmt.controller.member.TeamMemberMainScreenController;
+import hr.javafx.project.csmt.jfr.ScreenLoadEvent;
 import hr.javafx.project.csmt.model.ProjectManager;
 import hr.javafx.project.csmt.model.TeamMember;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 
 import java.io.IOException;
+import java.util.function.Consumer;
 
 import static hr.javafx.project.csmt.LoginApplication.MAIN_SCREEN_HEIGHT;
 import static hr.javafx.project.csmt.LoginApplication.MAIN_SCREEN_WIDTH;
@@ -20,6 +22,7 @@ import static hr.javafx.project.csmt.LoginApplication.MAIN_SCREEN_WIDTH;
  * including the login screen, project manager screen, and team member screen.
  * Uses the getStage() method from {@link LoginApplication} to update the visible scene
  * and provides controller injection where needed.
+ * Every screen shown is recorded as a {@link ScreenLoadEvent} when Java Flight Recorder is running.
  *
  */
 public class ShowScreenUtils {
@@ -43,16 +46,42 @@ public class ShowScreenUtils {
      * @param width width of the window
      */
     public void showScreen(String fxmlFileName, int height, int width) {
+        showScreen(fxmlFileName, height, width, controller -> {});
+    }
 
-        Scene scene = null;
+    /**
+     * Loads and displays a screen from the given FXML file with provided dimensions,
+     * passing its controller to the given initializer before the screen is shown.
+     * The screen is not shown if the FXML file cannot be loaded.
+     *
+     * @param fxmlFileName the file to load (e.g. "dashboard.fxml")
+     * @param height height of the window
+     * @param width width of the window
+     * @param initializer sets the data of the screen on its controller
+     * @param <T> the type of the controller
+     */
+    public <T> void showScreen(String fxmlFileName, int height, int width, Consumer<T> initializer) {
+        ScreenLoadEvent event = new ScreenLoadEvent();
+        event.fxmlFile = fxmlFileName;
+        event.begin();
+
+        FXMLLoader loader = loader(fxmlFileName);
         try {
-            scene = new Scene(loader(fxmlFileName).load(), width, height);
+            Scene scene = new Scene(loader.load(), width, height);
+            T controller = loader.getController();
+            if (controller != null) {
+                event.controller = controller.getClass().getName();
+            }
+            initializer.accept(controller);
+
+            LoginApplication.getStage().setScene(scene);
+            LoginApplication.getStage().show();
+            event.succeeded = true;
         } catch (IOException e) {
             LogUtils.error(e.getMessage());
+        } finally {
+            event.commit();
         }
-
-        LoginApplication.getStage().setScene(scene);
-        LoginApplication.getStage().show();
     }
 
     /**
@@ -62,19 +91,8 @@ public class ShowScreenUtils {
      * @param projectManager the logged-in project manager to pass into the next controller
      */
     public void showProjectManagerScreen(ProjectManager projectManager) {
-        FXMLLoader loader = loader("projectManagerScreen.fxml");
-        Scene scene = null;
-        try {
-            scene = new Scene(loader.load(), MAIN_SCREEN_WIDTH, MAIN_SCREEN_HEIGHT);
-        } catch (IOException e) {
-            LogUtils.error(e.getMessage());
-        }
-
-        ProjectManagerMainScreenController projectManagerMainScreenController = loader.getController();
-        projectManagerMainScreenController.setProjectManager(projectManager);
-
-        LoginApplication.getStage().setScene(scene);
-        LoginApplication.getStage().show();
+        this.<ProjectManagerMainScreenController>showScreen("projectManagerScreen.fxml", MAIN_SCREEN_HEIGHT, MAIN_SCREEN_WIDTH,
+                controller -> controller.setProjectManager(projectManager));
     }
 
     /**
@@ -84,19 +102,7 @@ public class ShowScreenUtils {
      * @param teamMember the logged-in team member to pass into the next controller
      */
     public void showTeamMemberScreen(TeamMember teamMember) {
-        FXMLLoader loader = loader("teamMemberMainScreen.fxml");
-        Scene scene = null;
-        try {
-            scene = new Scene(loader.load(), MAIN_SCREEN_WIDTH, MAIN_SCREEN_HEIGHT);
-        } catch (IOException e) {
-            LogUtils.error(e.getMessage());
-        }
-
-        TeamMemberMainScreenController teamMemberMainScreenController = loader.getController();
-        teamMemberMainScreenController.setTeamMember(teamMember);
-
-        LoginApplication.getStage().setScene(scene);
-        LoginApplication.getStage().show();
+        this.<TeamMemberMainScreenController>showScreen("teamMemberMainScreen.fxml", MAIN_SCREEN_HEIGHT, MAIN_SCREEN_WIDTH,
+                controller -> controller.setTeamMember(teamMember));
     }
 }
-
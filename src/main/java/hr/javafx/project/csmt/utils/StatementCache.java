@@ -0,0 +1,209 @@
+package hr.javafx.project.csmt.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of prepared statements belonging to one physical pooled connection.
+ * Statements are keyed by their SQL and preparation options, so repeated calls preparing the same SQL
+ * reuse the already parsed statement instead of preparing it again. Closing a statement handed out
+ * by the cache resets its parameters and returns it to the cache. Once the cache holds more than
+ * its maximum number of statements, the least recently used idle statement is closed.
+ * A statement that is still in use when the same SQL is prepared again is not shared;
+ * the second caller receives an uncached statement.
+ *
+ */
+
+final class StatementCache {
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean closed;
+
+    /**
+     * Functional interface for preparing a statement on the physical connection on a cache miss.
+     */
+    @FunctionalInterface
+    interface Preparer {
+        PreparedStatement prepare() throws SQLException;
+    }
+
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Returns the cached statement for the given key, preparing and caching it on a miss.
+     *
+     * @param key the SQL and preparation options of the statement
+     * @param connection the connection proxy the statement reports as its connection
+     * @param preparer prepares the statement on the physical connection
+     * @return a statement whose {@code close()} returns it to the cache
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(String key, Connection connection, Preparer preparer) throws SQLException {
+        CachedStatement entry;
+        synchronized (this) {
+            entry = statements.get(key);
+            if (entry != null && !entry.inUse) {
+                entry.inUse = true;
+                hits.increment();
+                return wrap(entry, connection);
+            }
+        }
+        misses.increment();
+        PreparedStatement physical = preparer.prepare();
+        if (entry != null || closed) {
+            return physical;
+        }
+        CachedStatement created = new CachedStatement(physical);
+        created.inUse = true;
+        synchronized (this) {
+            statements.put(key, created);
+            evictOverflow();
+        }
+        return wrap(created, connection);
+    }
+
+    /**
+     * Closes every cached statement. Statements that are still in use are closed when they are returned.
+     */
+    synchronized void close() {
+        closed = true;
+        for (CachedStatement entry : statements.values()) {
+            entry.evicted = true;
+            if (!entry.inUse) {
+                closeQuietly(entry.physical);
+            }
+        }
+        statements.clear();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            iterator.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                closeQuietly(eldest.physical);
+            }
+        }
+    }
+
+    private void release(CachedStatement entry, List<ResultSet> resultSets) {
+        resultSets.forEach(StatementCache::closeQuietly);
+        boolean reusable;
+        try {
+            entry.physical.clearParameters();
+            entry.physical.clearBatch();
+            reusable = true;
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        synchronized (this) {
+            entry.inUse = false;
+            if (!reusable || entry.evicted) {
+                statements.values().remove(entry);
+                closeQuietly(entry.physical);
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LogUtils.error(e.getMessage());
+        }
+    }
+
+    private PreparedStatement wrap(CachedStatement entry, Connection connection) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new CachedStatementHandler(entry, connection));
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement physical;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * Invocation handler behind every statement handed out by the cache.
+     * Intercepts {@code close()} to return the statement to the cache, closing the result sets
+     * it produced, and rejects any further use of the proxy after it has been returned.
+     */
+    private final class CachedStatementHandler implements InvocationHandler {
+        private final CachedStatement entry;
+        private final Connection connection;
+        private final List<ResultSet> resultSets = new ArrayList<>();
+        private boolean returned;
+
+        private CachedStatementHandler(CachedStatement entry, Connection connection) {
+            this.entry = entry;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(entry, resultSets);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || entry.physical.isClosed();
+                }
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached" + entry.physical;
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                    try {
+                        Object result = method.invoke(entry.physical, args);
+                        if (result instanceof ResultSet resultSet) {
+                            resultSets.add(resultSet);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
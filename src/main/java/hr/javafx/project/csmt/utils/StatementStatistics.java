@@ -0,0 +1,24 @@
+package hr.javafx.project.csmt.utils;
+
+/**
+ * Immutable snapshot of the executions of one SQL statement shape recorded by {@link QueryMetrics}.
+ * The latency of a query covers its execution and the time spent fetching its rows.
+ *
+ * @param shape the normalized SQL of the statement
+ * @param executions the number of times the statement was executed
+ * @param rows the total number of rows read or written by the statement
+ * @param totalMillis the total time spent executing the statement
+ * @param p50Millis the median latency
+ * @param p99Millis the 99th percentile latency
+ * @param maxMillis the highest latency
+ */
+
+public record StatementStatistics(String shape, long executions, long rows, double totalMillis,
+                                  double p50Millis, double p99Millis, double maxMillis) {
+
+    @Override
+    public String toString() {
+        return String.format("%8d execs %10d rows %10.1f ms total  p50=%.3f ms p99=%.3f ms max=%.3f ms  %s",
+                executions, rows, totalMillis, p50Millis, p99Millis, maxMillis, shape);
+    }
+}
@@ -0,0 +1,162 @@
+package hr.javafx.project.csmt.utils;
+
+import hr.javafx.project.csmt.enums.TaskCompletion;
+import hr.javafx.project.csmt.exception.DatabaseException;
+import hr.javafx.project.csmt.model.Company;
+import hr.javafx.project.csmt.model.Employee;
+import hr.javafx.project.csmt.model.Task;
+import hr.javafx.project.csmt.repository.EntitySession;
+import hr.javafx.project.csmt.repository.SecondLevelCache;
+import hr.javafx.project.csmt.thread.TaskArchivalThread;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves completed tasks out of the TASK table into the TASK_ARCHIVE table,
+ * so that the queries for live work only scan tasks that are still in progress.
+ * A task is archived once it is completed and its due date is older than
+ * {@code archive.completedTaskAgeDays} days (90 by default). Archived tasks remain
+ * available to history views through {@link #getCompletedTasksFromDatabase(String, Long)}.
+ * The archive table is created on first use if it does not exist yet.
+ *
+ */
+
+public class TaskArchiver {
+    private static final String ARCHIVE_COLUMNS = "ID, NAME, DESCRIPTION, DATE_DUE, COMPLETION, CREATED_BY, COMPANY_ID, EMPLOYEE_ID";
+    private static final String CREATE_ARCHIVE_TABLE = "CREATE TABLE IF NOT EXISTS TASK_ARCHIVE (" +
+            "ID BIGINT PRIMARY KEY, NAME VARCHAR(255), DESCRIPTION VARCHAR(4000), DATE_DUE DATE, " +
+            "COMPLETION VARCHAR(50), CREATED_BY VARCHAR(255), COMPANY_ID BIGINT, EMPLOYEE_ID BIGINT, ARCHIVED_ON DATE)";
+
+    private static ScheduledExecutorService scheduler;
+    private static boolean archiveTableCreated;
+
+    /**
+     * Archives the completed tasks whose due date is older than the configured age.
+     *
+     * @return the number of archived tasks
+     */
+    public int archiveCompletedTasks() {
+        long ageDays = Database.getLongProperty("archive.completedTaskAgeDays", 90);
+        return archiveCompletedTasks(LocalDate.now().minusDays(ageDays));
+    }
+
+    /**
+     * Copies the completed tasks due before the given date into TASK_ARCHIVE and deletes them
+     * from TASK within a single transaction. Only rows that were actually copied are deleted,
+     * so a task completed while the archival runs is never lost.
+     * Cached tasks, and the employees and companies holding task lists, are dropped from the
+     * {@link SecondLevelCache} once tasks have been archived.
+     *
+     * @param cutoff tasks due before this date are archived
+     * @return the number of archived tasks
+     */
+    public int archiveCompletedTasks(LocalDate cutoff) {
+        Database database = new Database();
+        try(Connection connection = database.getConnection()) {
+            if (connection == null) {
+                throw new DatabaseException("Unable to obtain a database connection");
+            }
+            ensureArchiveTable(connection);
+            connection.setAutoCommit(false);
+            int archived;
+            try(PreparedStatement insert = connection.prepareStatement("INSERT INTO TASK_ARCHIVE(" + ARCHIVE_COLUMNS + ", ARCHIVED_ON) " +
+                    "SELECT " + ARCHIVE_COLUMNS + ", ? FROM TASK WHERE COMPLETION = ? AND DATE_DUE < ?");
+                PreparedStatement delete = connection.prepareStatement("DELETE FROM TASK WHERE COMPLETION = ? AND DATE_DUE < ? " +
+                    "AND ID IN (SELECT ID FROM TASK_ARCHIVE)")) {
+                insert.setDate(1, Date.valueOf(LocalDate.now()));
+                insert.setString(2, TaskCompletion.COMPLETED.toString());
+                insert.setDate(3, Date.valueOf(cutoff));
+                insert.executeUpdate();
+
+                delete.setString(1, TaskCompletion.COMPLETED.toString());
+                delete.setDate(2, Date.valueOf(cutoff));
+                archived = delete.executeUpdate();
+            }
+            connection.commit();
+            if (archived > 0) {
+                SecondLevelCache.clear(Task.class);
+                SecondLevelCache.clear(Employee.class);
+                SecondLevelCache.clear(Company.class);
+            }
+            return archived;
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    /**
+     * Retrieves the history of completed tasks for a given field (e.g., COMPANY_ID or EMPLOYEE_ID) and identifier,
+     * reading both the completed tasks still in TASK and the archived ones. Intended for history views only,
+     * the screens showing live work keep using {@link Database#getTasksListFromDatabase(String, Long)}.
+     *
+     * @param blankId the column to match (e.g., "COMPANY_ID")
+     * @param id the corresponding value to search for
+     * @return the completed tasks, most recently due first
+     */
+    public List<Task> getCompletedTasksFromDatabase(String blankId, Long id) {
+        Database database = new Database();
+        List<Task> tasks = new ArrayList<>();
+        try(EntitySession session = EntitySession.join(); Connection connection = database.getConnection()) {
+            if (connection == null) {
+                throw new DatabaseException("Unable to obtain a database connection");
+            }
+            ensureArchiveTable(connection);
+            String sql = "SELECT " + ARCHIVE_COLUMNS + " FROM TASK WHERE " + blankId + " = ? AND COMPLETION = ? " +
+                    "UNION ALL SELECT " + ARCHIVE_COLUMNS + " FROM TASK_ARCHIVE WHERE " + blankId + " = ? " +
+                    "ORDER BY DATE_DUE DESC";
+            try(PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, id);
+                statement.setString(2, TaskCompletion.COMPLETED.toString());
+                statement.setLong(3, id);
+                ResultSet resultSet = statement.executeQuery();
+                while(resultSet.next()) {
+                    tasks.add(Database.mapTask(resultSet, "", session));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Starts archiving completed tasks in the background, once right away and then every
+     * {@code archive.intervalHours} hours (24 by default).
+     */
+    public static synchronized void startScheduledArchival() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-archiver");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalHours = Math.max(1, Database.getLongProperty("archive.intervalHours", 24));
+            scheduler.scheduleWithFixedDelay(new TaskArchivalThread(), 0, intervalHours, TimeUnit.HOURS);
+        }
+    }
+
+    /**
+     * Stops the background archival started with {@link #startScheduledArchival()}.
+     */
+    public static synchronized void stopScheduledArchival() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static synchronized void ensureArchiveTable(Connection connection) throws SQLException {
+        if (!archiveTableCreated) {
+            try(Statement statement = connection.createStatement()) {
+                statement.executeUpdate(CREATE_ARCHIVE_TABLE);
+            }
+            archiveTableCreated = true;
+        }
+    }
+}
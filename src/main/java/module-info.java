@@ -4,6 +4,8 @@ module hr.javafx.project.csmt {
     requires ch.qos.logback.classic;
     requires org.slf4j;
     requires java.sql;
+    requires com.h2database;
+    requires jdk.jfr;
 
 
     opens hr.javafx.project.csmt to javafx.fxml;
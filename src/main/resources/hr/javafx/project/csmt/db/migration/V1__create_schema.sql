@@ -0,0 +1,33 @@
+-- Core tables of the application. IF NOT EXISTS lets an existing database be adopted without losing data.
+CREATE TABLE IF NOT EXISTS COMPANY (
+    ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    NAME VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS EMPLOYEE (
+    ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    NAME VARCHAR(255) NOT NULL,
+    ROLE VARCHAR(50) NOT NULL,
+    COMPANY_ID BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS TASK (
+    ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    NAME VARCHAR(255) NOT NULL,
+    DESCRIPTION VARCHAR(4000),
+    DATE_DUE DATE NOT NULL,
+    COMPLETION VARCHAR(50) NOT NULL,
+    CREATED_BY VARCHAR(255),
+    COMPANY_ID BIGINT NOT NULL,
+    EMPLOYEE_ID BIGINT
+);
+
+-- TASK_ID is -1 for messages that do not refer to a task.
+CREATE TABLE IF NOT EXISTS MESSAGE (
+    ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    NAME VARCHAR(255) NOT NULL,
+    DESCRIPTION VARCHAR(4000),
+    TASK_ID BIGINT NOT NULL,
+    PROJECT_MANAGER_ID BIGINT NOT NULL,
+    COMPANY_ID BIGINT NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Live task lists of a company: WHERE COMPANY_ID = ? AND COMPLETION <> ?
+CREATE INDEX IF NOT EXISTS TASK_COMPANY_COMPLETION_IDX ON TASK(COMPANY_ID, COMPLETION);
+
+-- Task lists of team members: WHERE EMPLOYEE_ID = ? and EMPLOYEE_ID IN (...)
+CREATE INDEX IF NOT EXISTS TASK_EMPLOYEE_IDX ON TASK(EMPLOYEE_ID);
+
+-- Message dashboard: WHERE M.COMPANY_ID = ?
+CREATE INDEX IF NOT EXISTS MESSAGE_COMPANY_IDX ON MESSAGE(COMPANY_ID);
+
+-- Employees of a company: WHERE COMPANY_ID = ?
+CREATE INDEX IF NOT EXISTS EMPLOYEE_COMPANY_IDX ON EMPLOYEE(COMPANY_ID);
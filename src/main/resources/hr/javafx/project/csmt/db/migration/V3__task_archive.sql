@@ -0,0 +1,15 @@
+-- Completed tasks moved out of TASK by TaskArchiver, read only by history views.
+CREATE TABLE IF NOT EXISTS TASK_ARCHIVE (
+    ID BIGINT PRIMARY KEY,
+    NAME VARCHAR(255),
+    DESCRIPTION VARCHAR(4000),
+    DATE_DUE DATE,
+    COMPLETION VARCHAR(50),
+    CREATED_BY VARCHAR(255),
+    COMPANY_ID BIGINT,
+    EMPLOYEE_ID BIGINT,
+    ARCHIVED_ON DATE
+);
+
+CREATE INDEX IF NOT EXISTS TASK_ARCHIVE_COMPANY_IDX ON TASK_ARCHIVE(COMPANY_ID);
+CREATE INDEX IF NOT EXISTS TASK_ARCHIVE_EMPLOYEE_IDX ON TASK_ARCHIVE(EMPLOYEE_ID);
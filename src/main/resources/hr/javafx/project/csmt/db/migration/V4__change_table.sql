@@ -0,0 +1,26 @@
+-- Audit changes shipped from the local change logs of all workstations by ChangeShipper.
+CREATE TABLE IF NOT EXISTS CHANGE (
+    ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    SOURCE VARCHAR(255) NOT NULL,
+    NAME VARCHAR(255),
+    STARTING_VALUE VARCHAR(4000),
+    ENDING_VALUE VARCHAR(4000),
+    CHANGED_BY_ROLE VARCHAR(50),
+    CHANGED_BY_NAME VARCHAR(255),
+    DATE_OF_CHANGE TIMESTAMP,
+    COMPANY_ID BIGINT
+);
+
+-- Change history of a company: WHERE COMPANY_ID = ? ORDER BY DATE_OF_CHANGE DESC
+CREATE INDEX IF NOT EXISTS CHANGE_COMPANY_DATE_IDX ON CHANGE(COMPANY_ID, DATE_OF_CHANGE);
+
+-- Reports over a period: WHERE DATE_OF_CHANGE BETWEEN ? AND ?
+CREATE INDEX IF NOT EXISTS CHANGE_DATE_IDX ON CHANGE(DATE_OF_CHANGE);
+
+-- Position in the local change log up to which each workstation has shipped its changes,
+-- updated in the same transaction as the shipped rows so that no change is inserted twice.
+CREATE TABLE IF NOT EXISTS CHANGE_SHIPMENT (
+    SOURCE VARCHAR(255) PRIMARY KEY,
+    SEGMENT_ID BIGINT NOT NULL,
+    RECORD_OFFSET INT NOT NULL
+);
@@ -0,0 +1,122 @@
+package hr.javafx.project.csmt.helper;
+
+import hr.javafx.project.csmt.enums.TaskCompletion;
+import hr.javafx.project.csmt.exception.DatabaseException;
+import hr.javafx.project.csmt.model.Company;
+import hr.javafx.project.csmt.model.Task;
+import hr.javafx.project.csmt.repository.CompanyDatabaseRepository;
+import hr.javafx.project.csmt.repository.SecondLevelCache;
+import hr.javafx.project.csmt.repository.TaskDatabaseRepository;
+import hr.javafx.project.csmt.utils.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the key-based {@link TaskDatabaseRepository#findById(Long)} and
+ * {@link TaskDatabaseRepository#findAllById(java.util.Collection)} lookups with the previous
+ * {@code findAll().stream().filter(...)} approach while the TASK table grows.
+ * The key-based lookups are expected to stay flat, while the full scan grows with the table.
+ * Seeds its rows under a dedicated company and deletes them afterwards, but should still only be
+ * run against a scratch database configured in {@code dat/databaseProperties.txt}, with
+ * {@code cache.task.maxSize=0} so that the lookups are not served from the {@link SecondLevelCache}.
+ * It is not a test: it asserts nothing and only prints a table of the average lookup times.
+ * Compile it against the application classes and run its {@code main} method by hand,
+ * for example from the IDE with {@code src/test/java} added as a source root.
+ *
+ */
+
+public class FindByIdBenchmark {
+    private static final int[] TABLE_SIZES = {1_000, 10_000, 100_000};
+    private static final int LOOKUPS = 2_000;
+    private static final int MULTI_GET_SIZE = 100;
+    private static final int FULL_SCAN_LOOKUPS = 5;
+
+    public static void main(String[] args) {
+        CompanyDatabaseRepository companyRepository = new CompanyDatabaseRepository();
+        TaskDatabaseRepository taskRepository = new TaskDatabaseRepository();
+        Company company = new Company(null, "findById benchmark");
+        companyRepository.save(company);
+
+        List<Long> ids = new ArrayList<>();
+        Random random = new Random(42);
+        try {
+            System.out.printf("%10s %18s %22s %22s%n", "rows", "findById (us)", "findAllById x100 (us)", "findAll+filter (us)");
+            for (int size : TABLE_SIZES) {
+                seedTasks(company.getId(), size - ids.size());
+                ids = loadTaskIds(company.getId());
+
+                for (int i = 0; i < LOOKUPS / 10; i++) {
+                    taskRepository.findById(ids.get(random.nextInt(ids.size())));
+                }
+
+                long start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    taskRepository.findById(ids.get(random.nextInt(ids.size())));
+                }
+                double findById = (System.nanoTime() - start) / 1_000.0 / LOOKUPS;
+
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS / MULTI_GET_SIZE; i++) {
+                    List<Long> batch = new ArrayList<>();
+                    for (int j = 0; j < MULTI_GET_SIZE; j++) {
+                        batch.add(ids.get(random.nextInt(ids.size())));
+                    }
+                    taskRepository.findAllById(batch);
+                }
+                double findAllById = (System.nanoTime() - start) / 1_000.0 / (LOOKUPS / MULTI_GET_SIZE);
+
+                start = System.nanoTime();
+                for (int i = 0; i < FULL_SCAN_LOOKUPS; i++) {
+                    Long id = ids.get(random.nextInt(ids.size()));
+                    taskRepository.findAll().stream().filter(t -> t.getId().equals(id)).findFirst();
+                }
+                double fullScan = (System.nanoTime() - start) / 1_000.0 / FULL_SCAN_LOOKUPS;
+
+                System.out.printf("%10d %18.1f %22.1f %22.1f%n", size, findById, findAllById, fullScan);
+            }
+        } finally {
+            deleteCompany(company.getId());
+            Database.shutdown();
+        }
+    }
+
+    private static void seedTasks(Long companyId, int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task(null, "Benchmark task " + i, "Seeded by " + FindByIdBenchmark.class.getSimpleName(),
+                    LocalDate.now().plusDays(i % 30L), TaskCompletion.WAITING_ASSIGNMENT, "benchmark", companyId));
+        }
+        new TaskDatabaseRepository().saveAll(tasks);
+    }
+
+    private static List<Long> loadTaskIds(Long companyId) {
+        return new TaskDatabaseRepository().findAll().stream()
+                .filter(t -> t.getCompanyId().equals(companyId))
+                .map(Task::getId)
+                .toList();
+    }
+
+    private static void deleteCompany(Long companyId) {
+        Database database = new Database();
+        try (Connection connection = database.getConnection()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM TASK WHERE COMPANY_ID = ?")) {
+                preparedStatement.setLong(1, companyId);
+                preparedStatement.executeUpdate();
+            }
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM COMPANY WHERE ID = ?")) {
+                preparedStatement.setLong(1, companyId);
+                preparedStatement.executeUpdate();
+            }
+            SecondLevelCache.clear(Task.class);
+            SecondLevelCache.evict(Company.class, companyId);
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+}